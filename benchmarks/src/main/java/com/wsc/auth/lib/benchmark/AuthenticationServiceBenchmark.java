@@ -0,0 +1,56 @@
+package com.wsc.auth.lib.benchmark;
+
+import com.wsc.auth.lib.model.UserInfo;
+import com.wsc.auth.lib.model.AuthResponse;
+import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.service.impl.JwtServiceImpl;
+import com.wsc.auth.lib.service.impl.AuthenticationServiceImpl;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationServiceBenchmark {
+
+    private static final String RAW_PASSWORD = "benchmark-password";
+
+    @Param({"32", "64"})
+    public int keySize;
+
+    @Param({"4", "10"})
+    public int bcryptStrength;
+
+    private AuthenticationServiceImpl authService;
+    private UserInfo user;
+    private String hashedPassword;
+    private String refreshToken;
+
+    @Setup
+    public void setup() {
+        JwtProperties properties = BenchmarkFixtures.properties(keySize);
+        JwtServiceImpl jwtService = new JwtServiceImpl(properties);
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(bcryptStrength);
+
+        authService = new AuthenticationServiceImpl(jwtService, passwordEncoder, properties);
+        user = BenchmarkFixtures.user();
+        hashedPassword = passwordEncoder.encode(RAW_PASSWORD);
+        refreshToken = jwtService.generateRefreshToken(user, new Date());
+    }
+
+    @Benchmark
+    public AuthResponse authenticate() {
+        return authService.authenticate(RAW_PASSWORD, hashedPassword, user);
+    }
+
+    @Benchmark
+    public AuthResponse authenticateWithRefreshToken() {
+        return authService.authenticateWithRefreshToken(refreshToken);
+    }
+}
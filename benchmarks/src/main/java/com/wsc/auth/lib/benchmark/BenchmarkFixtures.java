@@ -0,0 +1,59 @@
+package com.wsc.auth.lib.benchmark;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.security.Keys;
+import com.wsc.auth.lib.model.UserInfo;
+import com.wsc.auth.lib.enums.TokenType;
+import com.wsc.auth.lib.config.JwtProperties;
+
+import java.util.Date;
+import java.nio.charset.StandardCharsets;
+
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtProperties properties(int keySize) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(secret(keySize));
+        properties.setAccessTokenExpiration(3600000L);
+        properties.setRefreshTokenExpiration(7200000L);
+        return properties;
+    }
+
+    static UserInfo user() {
+        return new UserInfo(42L, "Benchmark User", "benchmark@email.com", "ADMIN");
+    }
+
+    static String token(JwtProperties properties, TokenType type, int claimCount) {
+        long now = System.currentTimeMillis();
+
+        JwtBuilder builder = Jwts.builder()
+                .subject("42")
+                .claim("name", "Benchmark User")
+                .claim("email", "benchmark@email.com")
+                .claim("role", "ADMIN")
+                .claim("type", type.name())
+                .issuer(properties.getIssuer())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + properties.getAccessTokenExpiration()));
+
+        for (int i = 0; i < claimCount; i++) {
+            builder.claim("extra" + i, "value-" + i);
+        }
+
+        return builder
+                .signWith(Keys.hmacShaKeyFor(properties.getSecret().getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private static String secret(int keySize) {
+        StringBuilder secret = new StringBuilder(keySize);
+        for (int i = 0; i < keySize; i++) {
+            secret.append((char) ('a' + (i % 26)));
+        }
+        return secret.toString();
+    }
+}
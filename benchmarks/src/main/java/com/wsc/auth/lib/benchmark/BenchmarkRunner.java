@@ -0,0 +1,47 @@
+package com.wsc.auth.lib.benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.results.format.ResultFormatType;
+
+import java.util.Arrays;
+
+public final class BenchmarkRunner {
+
+    private static final String DEFAULT_INCLUDE = "com.wsc.auth.lib.benchmark.*";
+    private static final String DEFAULT_THREADS = "1,4,8";
+
+    private BenchmarkRunner() {
+    }
+
+    // Usage: java -jar benchmarks.jar [include-regex] [thread-counts]
+    // Any JMH flag (e.g. -h, -lprof) is forwarded to the regular JMH launcher.
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].startsWith("-")) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        String include = args.length > 0 ? args[0] : DEFAULT_INCLUDE;
+        String threads = args.length > 1 ? args[1] : DEFAULT_THREADS;
+
+        for (int threadCount : Arrays.stream(threads.split(",")).mapToInt(Integer::parseInt).toArray()) {
+            run(include, threadCount);
+        }
+    }
+
+    private static void run(String include, int threads) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(include)
+                .threads(threads)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result-" + threads + "t.json")
+                .build();
+
+        new Runner(options).run();
+    }
+}
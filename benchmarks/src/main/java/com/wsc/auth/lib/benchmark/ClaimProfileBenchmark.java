@@ -0,0 +1,55 @@
+package com.wsc.auth.lib.benchmark;
+
+import com.wsc.auth.lib.model.UserInfo;
+import com.wsc.auth.lib.enums.TokenType;
+import com.wsc.auth.lib.enums.ClaimProfile;
+import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.model.TokenValidation;
+import com.wsc.auth.lib.service.impl.JwtServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Compares the standard claim set with the compact profile (short claim names,
+// no issuer, no name/email). The token length is printed once per trial since
+// it is what every request pays for in the Authorization header.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaimProfileBenchmark {
+
+    @Param({"STANDARD", "COMPACT"})
+    public ClaimProfile profile;
+
+    private JwtServiceImpl jwtService;
+    private UserInfo user;
+    private String accessToken;
+
+    @Setup
+    public void setup() {
+        JwtProperties properties = BenchmarkFixtures.properties(32);
+        properties.getClaims().setProfile(profile);
+        properties.getClaims().setIncludeName(profile == ClaimProfile.STANDARD);
+        properties.getClaims().setIncludeEmail(profile == ClaimProfile.STANDARD);
+
+        jwtService = new JwtServiceImpl(properties);
+        user = BenchmarkFixtures.user();
+        accessToken = jwtService.generateToken(user, new Date());
+
+        System.out.printf("%n%s token: %d bytes%n", profile, accessToken.length());
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user, new Date());
+    }
+
+    @Benchmark
+    public TokenValidation validateToken() {
+        return jwtService.validateToken(accessToken, TokenType.ACCESS);
+    }
+}
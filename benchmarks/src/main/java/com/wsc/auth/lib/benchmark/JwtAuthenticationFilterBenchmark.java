@@ -0,0 +1,81 @@
+package com.wsc.auth.lib.benchmark;
+
+import jakarta.servlet.FilterChain;
+import com.wsc.auth.lib.enums.TokenType;
+import jakarta.servlet.ServletException;
+import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.service.impl.JwtServiceImpl;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import com.wsc.auth.lib.security.filter.JwtAuthenticationFilter;
+import org.springframework.security.core.context.SecurityContextHolder;
+import com.wsc.auth.lib.security.authentication.JwtAuthenticationFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"32", "64"})
+    public int keySize;
+
+    @Param({"0", "8"})
+    public int claimCount;
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    @Param({"false", "true"})
+    public boolean lazyPrincipal;
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+
+    private final FilterChain filterChain = (request, response) -> {
+    };
+
+    @Setup
+    public void setup() {
+        JwtProperties properties = BenchmarkFixtures.properties(keySize);
+        properties.getCache().setEnabled(cacheEnabled);
+
+        filter = new JwtAuthenticationFilter(
+                new JwtServiceImpl(properties),
+                new JwtAuthenticationFactory()
+        );
+        filter.setLazyPrincipal(lazyPrincipal);
+        authorizationHeader = "Bearer " + BenchmarkFixtures.token(properties, TokenType.ACCESS, claimCount);
+    }
+
+    @State(Scope.Thread)
+    public static class RequestState {
+
+        MockHttpServletRequest request;
+        MockHttpServletResponse response;
+
+        @Setup
+        public void setup(JwtAuthenticationFilterBenchmark benchmark) {
+            request = new MockHttpServletRequest("GET", "/api/v1/users");
+            request.setServletPath("/api/v1/users");
+            request.addHeader("Authorization", benchmark.authorizationHeader);
+            response = new MockHttpServletResponse();
+        }
+    }
+
+    @Benchmark
+    public Object doFilter(RequestState state) throws ServletException, IOException {
+        try {
+            filter.doFilter(state.request, state.response, filterChain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.wsc.auth.lib.benchmark;
+
+import com.wsc.auth.lib.model.UserInfo;
+import com.wsc.auth.lib.enums.TokenType;
+import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.model.TokenValidation;
+import com.wsc.auth.lib.service.impl.JwtServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"32", "64"})
+    public int keySize;
+
+    @Param({"0", "8", "32"})
+    public int claimCount;
+
+    private JwtServiceImpl jwtService;
+    private UserInfo user;
+    private String accessToken;
+
+    @Setup
+    public void setup() {
+        JwtProperties properties = BenchmarkFixtures.properties(keySize);
+
+        jwtService = new JwtServiceImpl(properties);
+        user = BenchmarkFixtures.user();
+        accessToken = BenchmarkFixtures.token(properties, TokenType.ACCESS, claimCount);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user, new Date());
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return jwtService.generateRefreshToken(user, new Date());
+    }
+
+    @Benchmark
+    public UserInfo extractUserInfo() {
+        return jwtService.extractUserInfo(accessToken);
+    }
+
+    @Benchmark
+    public TokenValidation validateToken() {
+        return jwtService.validateToken(accessToken, TokenType.ACCESS);
+    }
+}
@@ -0,0 +1,34 @@
+package com.wsc.auth.lib.benchmark;
+
+import java.util.Arrays;
+
+// Shared output format for the load tests: one row per scenario with
+// throughput and latency percentiles in microseconds.
+final class LatencyReport {
+
+    private LatencyReport() {
+    }
+
+    static void header() {
+        System.out.printf("%-18s %10s %10s %10s %10s %10s%n", "scenario", "req/s", "p50 us", "p99 us", "p99.9 us", "max us");
+    }
+
+    static void print(String name, long[] latencies, int seconds) {
+        Arrays.sort(latencies);
+        System.out.printf("%-18s %10.0f %10d %10d %10d %10d%n",
+                name,
+                latencies.length / (double) seconds,
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.99),
+                percentile(latencies, 0.999),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1000);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1000;
+    }
+}
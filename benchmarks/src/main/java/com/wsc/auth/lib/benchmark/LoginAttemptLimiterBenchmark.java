@@ -0,0 +1,68 @@
+package com.wsc.auth.lib.benchmark;
+
+import com.wsc.auth.lib.model.UserInfo;
+import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.service.impl.JwtServiceImpl;
+import com.wsc.auth.lib.ratelimit.LoginAttemptLimiter;
+import com.wsc.auth.lib.service.impl.AuthenticationServiceImpl;
+import com.wsc.auth.lib.exception.AuthenticationRateLimitedException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Cost of a wrong password with and without the attempt limiter: once the
+// user is locked out the attempt is rejected before BCrypt runs.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginAttemptLimiterBenchmark {
+
+    private static final String WRONG_PASSWORD = "wrong-password";
+
+    private AuthenticationServiceImpl unlimited;
+    private AuthenticationServiceImpl limited;
+    private UserInfo user;
+    private String hashedPassword;
+
+    @Setup
+    public void setup() {
+        JwtProperties properties = BenchmarkFixtures.properties(32);
+        JwtServiceImpl jwtService = new JwtServiceImpl(properties);
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(10);
+
+        user = BenchmarkFixtures.user();
+        hashedPassword = passwordEncoder.encode("benchmark-password");
+
+        unlimited = new AuthenticationServiceImpl(jwtService, passwordEncoder, properties);
+
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(1, 1_000, Duration.ofHours(1), 16_384, 4);
+        limiter.acquire(user.getId(), null);
+        limited = new AuthenticationServiceImpl(jwtService, passwordEncoder, properties);
+        limited.setAttemptLimiter(limiter);
+    }
+
+    @Benchmark
+    public Object failedAttempt() {
+        return this.attempt(unlimited);
+    }
+
+    @Benchmark
+    public Object rejectedAttempt() {
+        return this.attempt(limited);
+    }
+
+    private Object attempt(AuthenticationServiceImpl authService) {
+        try {
+            return authService.authenticate(WRONG_PASSWORD, hashedPassword, user, "203.0.113.7");
+        } catch (AuthenticationRateLimitedException e) {
+            return e;
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.wsc.auth.lib.benchmark;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import com.wsc.auth.lib.model.UserInfo;
+import com.wsc.auth.lib.enums.TokenType;
+import com.wsc.auth.lib.contract.JwtUser;
+import reactor.core.scheduler.Schedulers;
+import com.wsc.auth.lib.model.TokenBatch;
+import com.wsc.auth.lib.service.JwtService;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.model.TokenValidation;
+import reactor.netty.resources.ConnectionProvider;
+import com.wsc.auth.lib.service.impl.JwtServiceImpl;
+import org.springframework.http.server.reactive.HttpHandler;
+import com.wsc.auth.lib.security.filter.JwtAuthenticationWebFilter;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import com.wsc.auth.lib.security.authentication.JwtAuthenticationFactory;
+import com.wsc.auth.lib.security.filter.JwtServerAuthenticationConverter;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+
+import java.util.Date;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.locks.LockSupport;
+
+// Drives the reactive filter through a real Reactor Netty server with a fixed
+// number of event loops and reports request latency percentiles. The blocking
+// scenarios put a JwtService in front that parks for a fixed time, standing in
+// for a remote revocation or session lookup, to show what happens to the event
+// loop when such a call runs inline instead of on the offload scheduler.
+//
+// Usage: java -cp benchmarks.jar com.wsc.auth.lib.benchmark.ReactiveFilterLoadTest [concurrency] [seconds] [blockMicros]
+public final class ReactiveFilterLoadTest {
+
+    private static final int EVENT_LOOPS = 2;
+
+    private ReactiveFilterLoadTest() {
+    }
+
+    public static void main(String[] args) {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long blockMicros = args.length > 2 ? Long.parseLong(args[2]) : 500;
+
+        JwtProperties properties = BenchmarkFixtures.properties(32);
+        JwtServiceImpl jwtService = new JwtServiceImpl(properties);
+        String token = jwtService.generateToken(BenchmarkFixtures.user(), new Date());
+        JwtService blockingService = new BlockingJwtService(jwtService, blockMicros * 1000);
+
+        System.out.printf("concurrency=%d duration=%ds eventLoops=%d blockMicros=%d%n%n",
+                concurrency, seconds, EVENT_LOOPS, blockMicros);
+        LatencyReport.header();
+
+        // The first scenario would otherwise also pay for JIT compilation of
+        // Netty, Reactor and the filter, so run it once unreported.
+        run(null, jwtService, false, token, concurrency, seconds);
+
+        run("inline", jwtService, false, token, concurrency, seconds);
+        run("offload", jwtService, true, token, concurrency, seconds);
+        run("blocking-inline", blockingService, false, token, concurrency, seconds);
+        run("blocking-offload", blockingService, true, token, concurrency, seconds);
+    }
+
+    private static void run(String name, JwtService jwtService, boolean offload, String token, int concurrency, int seconds) {
+        JwtServerAuthenticationConverter converter = new JwtServerAuthenticationConverter(
+                jwtService,
+                new JwtAuthenticationFactory(),
+                offload ? Schedulers.boundedElastic() : null
+        );
+
+        HttpHandler handler = WebHttpHandlerBuilder
+                .webHandler(exchange -> exchange.getResponse().setComplete())
+                .filter(new JwtAuthenticationWebFilter(converter))
+                .build();
+
+        LoopResources serverLoops = LoopResources.create("bench-server", EVENT_LOOPS, true);
+        LoopResources clientLoops = LoopResources.create("bench-client", 2, true);
+        ConnectionProvider connections = ConnectionProvider.builder("bench")
+                .maxConnections(concurrency)
+                .pendingAcquireMaxCount(-1)
+                .build();
+
+        DisposableServer server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .runOn(serverLoops)
+                .handle(new ReactorHttpHandlerAdapter(handler))
+                .bindNow();
+
+        HttpClient client = HttpClient.create(connections)
+                .runOn(clientLoops)
+                .baseUrl("http://127.0.0.1:" + server.port())
+                .headers(headers -> headers.set("Authorization", "Bearer " + token));
+
+        try {
+            // Warm up the JIT and the connection pool before measuring.
+            measure(client, concurrency, Duration.ofSeconds(Math.max(1, seconds / 3)));
+            long[] latencies = measure(client, concurrency, Duration.ofSeconds(seconds));
+            if (name != null) {
+                LatencyReport.print(name, latencies, seconds);
+            }
+        } finally {
+            server.disposeNow();
+            connections.disposeLater().block();
+            serverLoops.disposeLater().block();
+            clientLoops.disposeLater().block();
+        }
+    }
+
+    private static long[] measure(HttpClient client, int concurrency, Duration duration) {
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        return Flux.range(0, Integer.MAX_VALUE)
+                .takeWhile(i -> System.nanoTime() < deadline)
+                .flatMap(i -> request(client), concurrency)
+                .collectList()
+                .map(list -> list.stream().mapToLong(Long::longValue).toArray())
+                .block();
+    }
+
+    private static Mono<Long> request(HttpClient client) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return client.get()
+                    .uri("/")
+                    .responseSingle((response, body) -> body.then(Mono.just(System.nanoTime() - start)));
+        });
+    }
+
+    private static final class BlockingJwtService implements JwtService {
+
+        private final JwtServiceImpl delegate;
+        private final long blockNanos;
+
+        private BlockingJwtService(JwtServiceImpl delegate, long blockNanos) {
+            this.delegate = delegate;
+            this.blockNanos = blockNanos;
+        }
+
+        @Override
+        public TokenValidation validateToken(String token) {
+            LockSupport.parkNanos(blockNanos);
+            return delegate.validateToken(token);
+        }
+
+        @Override
+        public TokenValidation validateToken(String token, TokenType expectedType) {
+            LockSupport.parkNanos(blockNanos);
+            return delegate.validateToken(token, expectedType);
+        }
+
+        @Override
+        public boolean revokeToken(String token) {
+            return delegate.revokeToken(token);
+        }
+
+        @Override
+        public void revokeAllTokens(Long userId) {
+            delegate.revokeAllTokens(userId);
+        }
+
+        @Override
+        public UserInfo extractUserInfo(String token) {
+            return delegate.extractUserInfo(token);
+        }
+
+        @Override
+        public boolean isInvalidTokenValid(String token) {
+            return delegate.isInvalidTokenValid(token);
+        }
+
+        @Override
+        public boolean isAccessToken(String token) {
+            return delegate.isAccessToken(token);
+        }
+
+        @Override
+        public boolean isRefreshToken(String token) {
+            return delegate.isRefreshToken(token);
+        }
+
+        @Override
+        public String generateToken(JwtUser user, Date date) {
+            return delegate.generateToken(user, date);
+        }
+
+        @Override
+        public String generateRefreshToken(JwtUser user, Date date) {
+            return delegate.generateRefreshToken(user, date);
+        }
+
+        @Override
+        public TokenBatch generateTokenPairs(Collection<? extends JwtUser> users, Date date, boolean parallel) {
+            return delegate.generateTokenPairs(users, date, parallel);
+        }
+
+        @Override
+        public String generateTokenWithRefreshToken(String refreshToken) {
+            return delegate.generateTokenWithRefreshToken(refreshToken);
+        }
+
+        @Override
+        public String generateNewRefreshToken(String refreshToken) {
+            return delegate.generateNewRefreshToken(refreshToken);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.wsc.auth.lib.benchmark;
+
+import io.jsonwebtoken.Jwts;
+import com.wsc.auth.lib.enums.JwtMode;
+import com.wsc.auth.lib.model.UserInfo;
+import com.wsc.auth.lib.enums.TokenType;
+import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.model.TokenValidation;
+import com.wsc.auth.lib.enums.SigningAlgorithm;
+import com.wsc.auth.lib.service.impl.JwtServiceImpl;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.Base64;
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureAlgorithmBenchmark {
+
+    @Param({"HS256", "RS256", "ES256", "EdDSA"})
+    public SigningAlgorithm algorithm;
+
+    private JwtServiceImpl issuer;
+    private JwtServiceImpl verifier;
+    private UserInfo user;
+    private String accessToken;
+
+    @Setup
+    public void setup() {
+        JwtProperties issuerProperties = BenchmarkFixtures.properties(32);
+        JwtProperties verifierProperties = BenchmarkFixtures.properties(32);
+        issuerProperties.setAlgorithm(algorithm);
+        verifierProperties.setAlgorithm(algorithm);
+
+        if (!algorithm.isHmac()) {
+            KeyPair keyPair = ((SignatureAlgorithm) Jwts.SIG.get().forKey(algorithm.name())).keyPair().build();
+            String publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+
+            issuerProperties.setPublicKey(publicKey);
+            issuerProperties.setPrivateKey(Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+            verifierProperties.setPublicKey(publicKey);
+            verifierProperties.setMode(JwtMode.VERIFY_ONLY);
+        }
+
+        issuer = new JwtServiceImpl(issuerProperties);
+        verifier = new JwtServiceImpl(verifierProperties);
+        user = BenchmarkFixtures.user();
+        accessToken = issuer.generateToken(user, new Date());
+    }
+
+    @Benchmark
+    public String sign() {
+        return issuer.generateToken(user, new Date());
+    }
+
+    @Benchmark
+    public TokenValidation verify() {
+        return verifier.validateToken(accessToken, TokenType.ACCESS);
+    }
+}
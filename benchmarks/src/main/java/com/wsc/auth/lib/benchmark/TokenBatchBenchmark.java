@@ -0,0 +1,45 @@
+package com.wsc.auth.lib.benchmark;
+
+import com.wsc.auth.lib.model.UserInfo;
+import com.wsc.auth.lib.model.TokenBatch;
+import com.wsc.auth.lib.service.impl.JwtServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Issues access/refresh pairs for a batch of users, sequentially and on the
+// common fork-join pool. Scores are batches per second.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBatchBenchmark {
+
+    @Param({"1000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private JwtServiceImpl jwtService;
+    private List<UserInfo> users;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtServiceImpl(BenchmarkFixtures.properties(32));
+        users = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            users.add(new UserInfo(id, "Benchmark User", "benchmark@email.com", "ADMIN"));
+        }
+    }
+
+    @Benchmark
+    public TokenBatch generateTokenPairs() {
+        return jwtService.generateTokenPairs(users, new Date(), parallel);
+    }
+}
@@ -0,0 +1,63 @@
+package com.wsc.auth.lib.benchmark;
+
+import io.jsonwebtoken.Jwts;
+import com.wsc.auth.lib.model.UserInfo;
+import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.enums.SigningAlgorithm;
+import com.wsc.auth.lib.service.impl.JwtServiceImpl;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Date;
+import java.util.Base64;
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+
+// Sign throughput with jjwt's builder versus the pooled TokenSigner. A login
+// issues an access and a refresh token, which is what login() measures.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenIssuanceBenchmark {
+
+    @Param({"HS256", "RS256", "ES256"})
+    public SigningAlgorithm algorithm;
+
+    @Param({"false", "true"})
+    public boolean pooled;
+
+    private JwtServiceImpl jwtService;
+    private UserInfo user;
+
+    @Setup
+    public void setup() {
+        JwtProperties properties = BenchmarkFixtures.properties(32);
+        properties.setAlgorithm(algorithm);
+        properties.setPooledSigning(pooled);
+
+        if (!algorithm.isHmac()) {
+            KeyPair keyPair = ((SignatureAlgorithm) Jwts.SIG.get().forKey(algorithm.name())).keyPair().build();
+            properties.setPublicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+            properties.setPrivateKey(Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+        }
+
+        jwtService = new JwtServiceImpl(properties);
+        user = BenchmarkFixtures.user();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user, new Date());
+    }
+
+    @Benchmark
+    public void login(Blackhole blackhole) {
+        Date now = new Date();
+        blackhole.consume(jwtService.generateToken(user, now));
+        blackhole.consume(jwtService.generateRefreshToken(user, now));
+    }
+}
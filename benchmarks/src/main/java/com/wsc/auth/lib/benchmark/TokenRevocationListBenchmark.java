@@ -0,0 +1,45 @@
+package com.wsc.auth.lib.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import com.wsc.auth.lib.revocation.TokenRevocationList;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenRevocationListBenchmark {
+
+    @Param({"1000", "100000"})
+    public int revokedCount;
+
+    private TokenRevocationList revocationList;
+    private String activeTokenId;
+    private String revokedTokenId;
+
+    @Setup
+    public void setup() {
+        revocationList = new TokenRevocationList(revokedCount, 0.01);
+        long expiresAt = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+
+        for (int i = 0; i < revokedCount; i++) {
+            revokedTokenId = UUID.randomUUID().toString();
+            revocationList.revoke(revokedTokenId, expiresAt);
+        }
+        activeTokenId = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public boolean notRevoked() {
+        return revocationList.isRevoked(activeTokenId);
+    }
+
+    @Benchmark
+    public boolean revoked() {
+        return revocationList.isRevoked(revokedTokenId);
+    }
+}
@@ -0,0 +1,149 @@
+package com.wsc.auth.lib.benchmark;
+
+import jakarta.servlet.FilterChain;
+import org.apache.catalina.Context;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.AbstractProtocol;
+import com.wsc.auth.lib.config.JwtProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import com.wsc.auth.lib.service.impl.JwtServiceImpl;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import com.wsc.auth.lib.security.filter.JwtAuthenticationFilter;
+
+import java.net.URI;
+import java.util.Date;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Runs JwtAuthenticationFilter in an embedded Tomcat, followed by a handler
+// that parks for a fixed time to stand in for a blocking token store or
+// session lookup, and compares a bounded platform-thread connector with a
+// virtual-thread one. The "virtual-pinned" scenario parks inside a
+// synchronized block, which on JDK 21 pins the carrier thread and removes
+// most of the virtual-thread benefit.
+//
+// Usage: java -cp benchmarks.jar com.wsc.auth.lib.benchmark.TomcatLoadTest [concurrency] [seconds] [blockMicros] [platformThreads]
+public final class TomcatLoadTest {
+
+    private TomcatLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long blockMicros = args.length > 2 ? Long.parseLong(args[2]) : 20000;
+        int platformThreads = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+
+        JwtProperties properties = BenchmarkFixtures.properties(32);
+        JwtServiceImpl jwtService = new JwtServiceImpl(properties);
+        String token = jwtService.generateToken(BenchmarkFixtures.user(), new Date());
+
+        System.out.printf("concurrency=%d duration=%ds blockMicros=%d platformThreads=%d%n%n",
+                concurrency, seconds, blockMicros, platformThreads);
+        LatencyReport.header();
+
+        // Warm up the JIT on Tomcat, the HTTP client and the filter unreported.
+        run(null, jwtService, token, false, false, platformThreads, blockMicros, concurrency, seconds);
+
+        run("platform", jwtService, token, false, false, platformThreads, blockMicros, concurrency, seconds);
+        run("virtual", jwtService, token, true, false, platformThreads, blockMicros, concurrency, seconds);
+        run("virtual-pinned", jwtService, token, true, true, platformThreads, blockMicros, concurrency, seconds);
+    }
+
+    private static void run(String name, JwtServiceImpl jwtService, String token, boolean virtualThreads, boolean pinned,
+                            int platformThreads, long blockMicros, int concurrency, int seconds) throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService);
+        long blockNanos = blockMicros * 1000;
+
+        FilterChain lookup = (request, response) -> {
+            if (pinned) {
+                synchronized (new Object()) {
+                    LockSupport.parkNanos(blockNanos);
+                }
+            } else {
+                LockSupport.parkNanos(blockNanos);
+            }
+        };
+
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(System.getProperty("java.io.tmpdir"));
+        tomcat.setPort(0);
+
+        AbstractProtocol<?> protocol = (AbstractProtocol<?>) tomcat.getConnector().getProtocolHandler();
+        if (virtualThreads) {
+            protocol.setExecutor(new VirtualThreadExecutor("bench-tomcat-"));
+        } else {
+            protocol.setMaxThreads(platformThreads);
+        }
+        protocol.setMaxConnections(concurrency * 2);
+
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "bench", new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                try {
+                    filter.doFilter(request, response, lookup);
+                } catch (ServletException e) {
+                    throw new IOException(e);
+                }
+            }
+        });
+        context.addServletMappingDecoded("/", "bench");
+
+        tomcat.start();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clients)
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + tomcat.getConnector().getLocalPort() + "/"))
+                    .header("Authorization", "Bearer " + token)
+                    .build();
+
+            measure(client, request, concurrency, Math.max(1, seconds / 3));
+            long[] latencies = measure(client, request, concurrency, seconds);
+            if (name != null) {
+                LatencyReport.print(name, latencies, seconds);
+            }
+        } finally {
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    // Closed loop: each worker sends its next request as soon as the previous
+    // one completes, so throughput is bounded by how fast the server drains.
+    private static long[] measure(HttpClient client, HttpRequest request, int concurrency, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            client.send(request, HttpResponse.BodyHandlers.discarding());
+                        } catch (IOException e) {
+                            continue;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        latencies.add(System.nanoTime() - start);
+                    }
+                });
+            }
+        }
+        return latencies.stream().mapToLong(Long::longValue).toArray();
+    }
+}
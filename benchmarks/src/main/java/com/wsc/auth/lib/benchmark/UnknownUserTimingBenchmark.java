@@ -0,0 +1,59 @@
+package com.wsc.auth.lib.benchmark;
+
+import com.wsc.auth.lib.model.UserInfo;
+import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.service.impl.JwtServiceImpl;
+import com.wsc.auth.lib.service.impl.AuthenticationServiceImpl;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Latency distribution of a wrong password for an existing user versus a
+// login for a user that does not exist. Sample mode reports percentiles; the
+// two rows should be indistinguishable.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnknownUserTimingBenchmark {
+
+    private static final String WRONG_PASSWORD = "wrong-password";
+
+    @Param({"10"})
+    public int bcryptStrength;
+
+    private AuthenticationServiceImpl authService;
+    private UserInfo user;
+    private String hashedPassword;
+
+    @Setup
+    public void setup() {
+        JwtProperties properties = BenchmarkFixtures.properties(32);
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(bcryptStrength);
+
+        authService = new AuthenticationServiceImpl(new JwtServiceImpl(properties), passwordEncoder, properties);
+        user = BenchmarkFixtures.user();
+        hashedPassword = passwordEncoder.encode("benchmark-password");
+    }
+
+    @Benchmark
+    public String wrongPassword() {
+        try {
+            return authService.authenticate(WRONG_PASSWORD, hashedPassword, user).accessToken();
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String unknownUser() {
+        try {
+            return authService.authenticateUnknownUser("unknown-user", WRONG_PASSWORD, null).accessToken();
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+}
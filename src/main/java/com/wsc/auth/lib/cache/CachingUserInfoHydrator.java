@@ -0,0 +1,46 @@
+package com.wsc.auth.lib.cache;
+
+import com.wsc.auth.lib.contract.JwtUser;
+import com.wsc.auth.lib.contract.UserInfoHydrator;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import java.util.Optional;
+import java.time.Duration;
+
+// Keeps hydrated users for a bounded time so a compact token costs a store
+// lookup once per user and TTL instead of once per request. Unknown users are
+// cached as empty so a missing row does not turn into a lookup per request.
+public class CachingUserInfoHydrator implements UserInfoHydrator {
+
+    private final LoadingCache<Long, Optional<JwtUser>> cache;
+
+    public CachingUserInfoHydrator(UserInfoHydrator delegate, long maximumSize, Duration timeToLive) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build(userId -> Optional.ofNullable(delegate.load(userId)));
+    }
+
+    @Override
+    public JwtUser load(Long userId) {
+        return cache.get(userId).orElse(null);
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long missCount() {
+        return cache.stats().missCount();
+    }
+}
@@ -0,0 +1,122 @@
+package com.wsc.auth.lib.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wsc.auth.lib.model.TokenValidation;
+
+import java.util.concurrent.TimeUnit;
+import java.security.MessageDigest;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+
+public class VerifiedTokenCache {
+
+    private static final MessageDigest SHA_256_PROTOTYPE = newDigest();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(VerifiedTokenCache::newDigest);
+
+    private final Cache<TokenDigest, TokenValidation> cache;
+
+    public VerifiedTokenCache(long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    public TokenValidation get(String token) {
+        return cache.getIfPresent(digest(token));
+    }
+
+    public void put(String token, TokenValidation validation) {
+        if (!validation.valid() || validation.expiresAt() == null) {
+            return;
+        }
+        if (validation.expiresAt() <= System.currentTimeMillis()) {
+            return;
+        }
+        cache.put(digest(token), validation);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long missCount() {
+        return cache.stats().missCount();
+    }
+
+    public long evictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private static TokenDigest digest(String token) {
+        MessageDigest digest = Thread.currentThread().isVirtual() ? cloneDigest() : SHA_256.get();
+        byte[] hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+
+        return new TokenDigest(
+                readLong(hash, 0),
+                readLong(hash, 8),
+                readLong(hash, 16),
+                readLong(hash, 24)
+        );
+    }
+
+    // Virtual threads are created per task, so a thread-local digest would never
+    // be reused; cloning a prototype skips the provider lookup instead.
+    private static MessageDigest cloneDigest() {
+        try {
+            return (MessageDigest) SHA_256_PROTOTYPE.clone();
+        } catch (CloneNotSupportedException e) {
+            return newDigest();
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private record TokenDigest(long h0, long h1, long h2, long h3) {
+    }
+
+    private static final class TokenExpiry implements Expiry<TokenDigest, TokenValidation> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, TokenValidation value, long currentTime) {
+            long remaining = value.expiresAt() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, TokenValidation value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, TokenValidation value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
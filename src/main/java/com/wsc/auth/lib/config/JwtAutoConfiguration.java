@@ -1,40 +1,299 @@
 package com.wsc.auth.lib.config;
 
+import reactor.core.scheduler.Schedulers;
 import com.wsc.auth.lib.service.JwtService;
+import com.wsc.auth.lib.metrics.AuthMetrics;
+import com.wsc.auth.lib.store.RefreshTokenStore;
+import com.wsc.auth.lib.executor.AuthTaskExecutor;
+import com.wsc.auth.lib.contract.UserInfoHydrator;
+import com.wsc.auth.lib.security.key.KeyRingLoader;
 import org.springframework.context.annotation.Bean;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.wsc.auth.lib.security.key.KeyRingWatcher;
 import com.wsc.auth.lib.service.impl.JwtServiceImpl;
 import com.wsc.auth.lib.service.AuthenticationService;
+import com.wsc.auth.lib.metrics.MicrometerAuthMetrics;
+import com.wsc.auth.lib.cache.CachingUserInfoHydrator;
+import com.wsc.auth.lib.ratelimit.LoginAttemptLimiter;
+import com.wsc.auth.lib.security.filter.TokenResolver;
+import com.wsc.auth.lib.revocation.TokenRevocationList;
+import org.springframework.beans.factory.ObjectProvider;
+import com.wsc.auth.lib.store.InMemoryRefreshTokenStore;
+import com.wsc.auth.lib.security.filter.SkipPathMatcher;
+import com.wsc.auth.lib.executor.BoundedAuthTaskExecutor;
+import com.wsc.auth.lib.security.password.PasswordEncoders;
+import org.springframework.context.annotation.Configuration;
+import com.wsc.auth.lib.revocation.SubjectInvalidationIndex;
+import org.springframework.beans.factory.annotation.Qualifier;
 import com.wsc.auth.lib.service.impl.AuthenticationServiceImpl;
+import com.wsc.auth.lib.executor.VirtualThreadAuthTaskExecutor;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import com.wsc.auth.lib.security.filter.JwtAuthenticationFilter;
+import com.wsc.auth.lib.revocation.SubjectInvalidationSnapshotter;
+import com.wsc.auth.lib.security.filter.JwtAuthenticationWebFilter;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import com.wsc.auth.lib.security.authentication.JwtAuthenticationFactory;
+import com.wsc.auth.lib.security.filter.JwtServerAuthenticationConverter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.io.IOException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 
-@AutoConfiguration
+@AutoConfiguration(afterName = {
+        "org.springframework.boot.micrometer.metrics.autoconfigure.CompositeMeterRegistryAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration"
+})
 @EnableConfigurationProperties(JwtProperties.class)
 public class JwtAutoConfiguration {
 
     @Bean
-    public JwtService jwtService(JwtProperties properties) {
-        return new JwtServiceImpl(properties);
+    public JwtService jwtService(JwtProperties properties, ObjectProvider<AuthMetrics> metricsProvider, ObjectProvider<RefreshTokenStore> refreshTokenStoreProvider, ObjectProvider<TokenRevocationList> revocationListProvider, ObjectProvider<SubjectInvalidationIndex> subjectIndexProvider, ObjectProvider<UserInfoHydrator> hydratorProvider) {
+        AuthMetrics metrics = metricsProvider.getIfAvailable(() -> AuthMetrics.NOOP);
+
+        JwtServiceImpl jwtService = new JwtServiceImpl(properties);
+        jwtService.setMetrics(metrics);
+        jwtService.getVerifiedTokenCache().ifPresent(metrics::bindVerifiedTokenCache);
+        refreshTokenStoreProvider.ifAvailable(jwtService::setRefreshTokenStore);
+        revocationListProvider.ifAvailable(jwtService::setRevocationList);
+        subjectIndexProvider.ifAvailable(jwtService::setSubjectIndex);
+        hydratorProvider.ifAvailable(hydrator -> jwtService.setUserInfoHydrator(cachingHydrator(hydrator, properties.getClaims())));
+        return jwtService;
+    }
+
+    private static UserInfoHydrator cachingHydrator(UserInfoHydrator hydrator, JwtProperties.Claims claims) {
+        if (claims.getHydrationCacheSize() <= 0) {
+            return hydrator;
+        }
+        return new CachingUserInfoHydrator(
+                hydrator,
+                claims.getHydrationCacheSize(),
+                Duration.ofSeconds(claims.getHydrationCacheTtlSeconds())
+        );
+    }
+
+    // Patterns are compiled once here so the filters only walk a trie per request.
+    private static SkipPathMatcher skipPaths(JwtProperties.Filter filter) {
+        SkipPathMatcher matcher = new SkipPathMatcher(filter.getInclude(), filter.getExclude());
+        return matcher.isEmpty() ? null : matcher;
+    }
+
+    private static TokenResolver tokenResolver(JwtProperties.Filter filter) {
+        return new TokenResolver(filter.getSchemes(), filter.getCookieName(), filter.getQueryParameter());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "wsc.auth.jwt.sessions", name = "enabled", havingValue = "true")
+    public SubjectInvalidationIndex subjectInvalidationIndex(JwtProperties properties) {
+        return new SubjectInvalidationIndex(properties.getSessions().getExpectedSubjects());
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "wsc.auth.jwt.sessions", name = {"enabled", "snapshot-file"})
+    public SubjectInvalidationSnapshotter subjectInvalidationSnapshotter(SubjectInvalidationIndex index, JwtProperties properties) throws IOException {
+        JwtProperties.Sessions sessions = properties.getSessions();
+        long retentionSeconds = Math.max(properties.getAccessTokenExpiration(), properties.getRefreshTokenExpiration()) / 1000;
+
+        SubjectInvalidationSnapshotter snapshotter = new SubjectInvalidationSnapshotter(
+                index,
+                Path.of(sessions.getSnapshotFile()),
+                retentionSeconds
+        );
+        snapshotter.restore();
+        snapshotter.start(sessions.getSnapshotIntervalSeconds());
+        return snapshotter;
     }
 
     @Bean
-    public AuthenticationService authService(JwtServiceImpl jwtService, PasswordEncoder passwordEncoder, JwtProperties properties) {
-        return new AuthenticationServiceImpl(jwtService, passwordEncoder, properties);
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "wsc.auth.jwt.revocation", name = "enabled", havingValue = "true")
+    public TokenRevocationList tokenRevocationList(JwtProperties properties) {
+        JwtProperties.Revocation revocation = properties.getRevocation();
+        return new TokenRevocationList(revocation.getExpectedRevocations(), revocation.getFalsePositiveRate());
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public JwtAuthenticationFilter jwtAuthenticationFilter(JwtService jwtService) {
-        return new JwtAuthenticationFilter(jwtService);
+    @ConditionalOnProperty(prefix = "wsc.auth.jwt.refresh", name = "rotation", havingValue = "true")
+    public RefreshTokenStore refreshTokenStore(JwtProperties properties) {
+        return new InMemoryRefreshTokenStore(properties.getRefresh().getStoreShards());
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @ConditionalOnProperty(prefix = "wsc.auth.jwt.rate-limit", name = "enabled", havingValue = "true")
+    public LoginAttemptLimiter loginAttemptLimiter(JwtProperties properties, ObjectProvider<AuthMetrics> metricsProvider) {
+        JwtProperties.RateLimit rateLimit = properties.getRateLimit();
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(
+                rateLimit.getMaxFailuresPerUser(),
+                rateLimit.getMaxFailuresPerClient(),
+                Duration.ofSeconds(rateLimit.getWindowSeconds()),
+                rateLimit.getSketchWidth(),
+                rateLimit.getSketchDepth()
+        );
+        metricsProvider.getIfAvailable(() -> AuthMetrics.NOOP).bindAttemptLimiter(limiter);
+        return limiter;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "wsc.auth.jwt.keys", name = "location")
+    public KeyRingWatcher keyRingWatcher(JwtServiceImpl jwtService, JwtProperties properties) throws IOException {
+        Path location = Path.of(properties.getKeys().getLocation());
+
+        KeyRingWatcher watcher = new KeyRingWatcher(
+                location,
+                () -> KeyRingLoader.load(location, properties),
+                jwtService::rotate
+        );
+        if (properties.getKeys().isWatch()) {
+            watcher.start();
+        }
+        return watcher;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "wsc.auth.jwt", name = "mode", havingValue = "issuer", matchIfMissing = true)
+    public AuthenticationService authService(JwtServiceImpl jwtService, PasswordEncoder passwordEncoder, JwtProperties properties, @Qualifier("authHashingExecutor") AuthTaskExecutor authHashingExecutor, @Qualifier("authLookupExecutor") AuthTaskExecutor authLookupExecutor, ObjectProvider<AuthMetrics> metricsProvider, ObjectProvider<LoginAttemptLimiter> attemptLimiterProvider) {
+        AuthenticationServiceImpl authService = new AuthenticationServiceImpl(jwtService, passwordEncoder, properties);
+        authService.setMetrics(metricsProvider.getIfAvailable(() -> AuthMetrics.NOOP));
+        authService.setHashingExecutor(authHashingExecutor);
+        authService.setLookupExecutor(authLookupExecutor);
+        attemptLimiterProvider.ifAvailable(authService::setAttemptLimiter);
+        return authService;
+    }
+
+    // Hashing is CPU-bound: even on virtual threads its permits should stay near
+    // the core count, otherwise extra hashes only add latency to each other.
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "wsc.auth.jwt", name = "mode", havingValue = "issuer", matchIfMissing = true)
+    public AuthTaskExecutor authHashingExecutor(JwtProperties properties, ObjectProvider<AuthMetrics> metricsProvider) {
+        JwtProperties.Hashing hashing = properties.getHashing();
+
+        AuthTaskExecutor executor = taskExecutor(
+                "wsc-auth-hashing",
+                hashing.getMaxConcurrency(),
+                hashing.getQueueCapacity(),
+                properties.isVirtualThreads()
+        );
+        metricsProvider.getIfAvailable(() -> AuthMetrics.NOOP).bindHashingExecutor(executor);
+        return executor;
+    }
+
+    // Lookups mostly wait on a refresh token store, so their limit protects the
+    // store rather than the CPU and can be far higher than the hashing limit.
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "wsc.auth.jwt", name = "mode", havingValue = "issuer", matchIfMissing = true)
+    public AuthTaskExecutor authLookupExecutor(JwtProperties properties, ObjectProvider<AuthMetrics> metricsProvider) {
+        JwtProperties.Lookup lookup = properties.getLookup();
+
+        AuthTaskExecutor executor = taskExecutor(
+                "wsc-auth-lookup",
+                lookup.getMaxConcurrency(),
+                lookup.getQueueCapacity(),
+                properties.isVirtualThreads()
+        );
+        metricsProvider.getIfAvailable(() -> AuthMetrics.NOOP).bindLookupExecutor(executor);
+        return executor;
+    }
+
+    private static AuthTaskExecutor taskExecutor(String name, int maxConcurrency, int queueCapacity, boolean virtualThreads) {
+        if (virtualThreads) {
+            return new VirtualThreadAuthTaskExecutor(name, maxConcurrency, queueCapacity);
+        }
+        return new BoundedAuthTaskExecutor(name, maxConcurrency, queueCapacity);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JwtAuthenticationFactory jwtAuthenticationFactory() {
+        return new JwtAuthenticationFactory();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "wsc.auth.jwt", name = "mode", havingValue = "issuer", matchIfMissing = true)
+    public PasswordEncoder passwordEncoder(JwtProperties properties) {
+        JwtProperties.Password password = properties.getPassword();
+
+        PasswordEncoders.Cost cost = password.getCalibration().isEnabled()
+                ? PasswordEncoders.calibrate(password, password.getCalibration().getTargetMillis())
+                : PasswordEncoders.Cost.of(password);
+        return PasswordEncoders.create(password, cost);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public JwtAuthenticationFilter jwtAuthenticationFilter(JwtService jwtService, JwtAuthenticationFactory authenticationFactory, JwtProperties properties, ObjectProvider<AuthMetrics> metricsProvider) {
+            JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, authenticationFactory);
+            filter.setMetrics(metricsProvider.getIfAvailable(() -> AuthMetrics.NOOP));
+            filter.setSkipPaths(skipPaths(properties.getFilter()));
+            filter.setLazyPrincipal(properties.getFilter().isLazyPrincipal());
+            filter.setTokenResolver(tokenResolver(properties.getFilter()));
+            return filter;
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class ReactiveConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public JwtServerAuthenticationConverter jwtServerAuthenticationConverter(JwtService jwtService, JwtAuthenticationFactory authenticationFactory, JwtProperties properties, ObjectProvider<AuthMetrics> metricsProvider, ObjectProvider<UserInfoHydrator> hydratorProvider, ObjectProvider<RefreshTokenStore> refreshTokenStoreProvider, ObjectProvider<TokenRevocationList> revocationListProvider, ObjectProvider<SubjectInvalidationIndex> subjectIndexProvider) {
+            boolean hydrating = hydratorProvider.getIfAvailable() != null;
+            boolean offload = properties.getReactive().isOffload()
+                    || hydrating
+                    || mayBlock(refreshTokenStoreProvider.getIfAvailable(), InMemoryRefreshTokenStore.class)
+                    || mayBlock(revocationListProvider.getIfAvailable(), TokenRevocationList.class)
+                    || mayBlock(subjectIndexProvider.getIfAvailable(), SubjectInvalidationIndex.class);
+
+            JwtServerAuthenticationConverter converter = new JwtServerAuthenticationConverter(
+                    jwtService,
+                    authenticationFactory,
+                    offload ? Schedulers.boundedElastic() : null
+            );
+            converter.setMetrics(metricsProvider.getIfAvailable(() -> AuthMetrics.NOOP));
+            // A lazy principal would hydrate wherever it is first read, which is
+            // usually the event loop, so hydration stays on the offloaded path.
+            converter.setLazyPrincipal(properties.getFilter().isLazyPrincipal() && !hydrating);
+            converter.setTokenResolver(tokenResolver(properties.getFilter()));
+            return converter;
+        }
+
+        // Only the built-in in-memory implementations are known not to block;
+        // a subclass or another store may call out to a database.
+        private static boolean mayBlock(Object collaborator, Class<?> inMemoryType) {
+            return collaborator != null && collaborator.getClass() != inMemoryType;
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public JwtAuthenticationWebFilter jwtAuthenticationWebFilter(JwtServerAuthenticationConverter authenticationConverter, JwtProperties properties) {
+            JwtAuthenticationWebFilter filter = new JwtAuthenticationWebFilter(authenticationConverter);
+            filter.setSkipPaths(skipPaths(properties.getFilter()));
+            return filter;
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class MetricsConfiguration {
+
+        @Bean
+        @ConditionalOnBean(MeterRegistry.class)
+        @ConditionalOnMissingBean
+        public AuthMetrics authMetrics(MeterRegistry meterRegistry) {
+            return new MicrometerAuthMetrics(meterRegistry);
+        }
     }
 }
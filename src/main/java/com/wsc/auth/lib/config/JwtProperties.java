@@ -1,7 +1,14 @@
 package com.wsc.auth.lib.config;
 
+import com.wsc.auth.lib.enums.JwtMode;
+import com.wsc.auth.lib.enums.ClaimProfile;
+import com.wsc.auth.lib.enums.SigningAlgorithm;
+import com.wsc.auth.lib.enums.PasswordEncoderType;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.List;
+import java.util.ArrayList;
+
 @ConfigurationProperties(prefix = "wsc.auth.jwt")
 public class JwtProperties {
 
@@ -11,6 +18,50 @@ public class JwtProperties {
 
     private long refreshTokenExpiration;
 
+    private String issuer = "auth-service";
+
+    private long clockSkewSeconds;
+
+    private JwtMode mode = JwtMode.ISSUER;
+
+    private boolean virtualThreads;
+
+    private boolean fastVerification;
+
+    private boolean pooledSigning = true;
+
+    private SigningAlgorithm algorithm;
+
+    private String publicKey;
+
+    private String privateKey;
+
+    private final Keys keys = new Keys();
+
+    private final Cache cache = new Cache();
+
+    private final Claims claims = new Claims();
+
+    private final Authorities authorities = new Authorities();
+
+    private final Hashing hashing = new Hashing();
+
+    private final Lookup lookup = new Lookup();
+
+    private final Password password = new Password();
+
+    private final Refresh refresh = new Refresh();
+
+    private final Revocation revocation = new Revocation();
+
+    private final Sessions sessions = new Sessions();
+
+    private final Reactive reactive = new Reactive();
+
+    private final RateLimit rateLimit = new RateLimit();
+
+    private final Filter filter = new Filter();
+
     public String getSecret() {
         return secret;
     }
@@ -34,4 +85,713 @@ public class JwtProperties {
     public void setSecret(String secret) {
         this.secret = secret;
     }
+
+    public String getIssuer() {
+        return issuer;
+    }
+
+    public void setIssuer(String issuer) {
+        this.issuer = issuer;
+    }
+
+    public long getClockSkewSeconds() {
+        return clockSkewSeconds;
+    }
+
+    public void setClockSkewSeconds(long clockSkewSeconds) {
+        this.clockSkewSeconds = clockSkewSeconds;
+    }
+
+    public JwtMode getMode() {
+        return mode;
+    }
+
+    public void setMode(JwtMode mode) {
+        this.mode = mode;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public boolean isFastVerification() {
+        return fastVerification;
+    }
+
+    public void setFastVerification(boolean fastVerification) {
+        this.fastVerification = fastVerification;
+    }
+
+    public boolean isPooledSigning() {
+        return pooledSigning;
+    }
+
+    public void setPooledSigning(boolean pooledSigning) {
+        this.pooledSigning = pooledSigning;
+    }
+
+    public SigningAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(SigningAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(String publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public String getPrivateKey() {
+        return privateKey;
+    }
+
+    public void setPrivateKey(String privateKey) {
+        this.privateKey = privateKey;
+    }
+
+    public Keys getKeys() {
+        return keys;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Claims getClaims() {
+        return claims;
+    }
+
+    public Authorities getAuthorities() {
+        return authorities;
+    }
+
+    public Hashing getHashing() {
+        return hashing;
+    }
+
+    public Lookup getLookup() {
+        return lookup;
+    }
+
+    public Password getPassword() {
+        return password;
+    }
+
+    public Refresh getRefresh() {
+        return refresh;
+    }
+
+    public Revocation getRevocation() {
+        return revocation;
+    }
+
+    public Sessions getSessions() {
+        return sessions;
+    }
+
+    public Reactive getReactive() {
+        return reactive;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+
+    public static class Keys {
+
+        private String kid;
+
+        private String location;
+
+        private String activeKid;
+
+        private boolean watch = true;
+
+        public String getKid() {
+            return kid;
+        }
+
+        public void setKid(String kid) {
+            this.kid = kid;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public void setLocation(String location) {
+            this.location = location;
+        }
+
+        public String getActiveKid() {
+            return activeKid;
+        }
+
+        public void setActiveKid(String activeKid) {
+            this.activeKid = activeKid;
+        }
+
+        public boolean isWatch() {
+            return watch;
+        }
+
+        public void setWatch(boolean watch) {
+            this.watch = watch;
+        }
+    }
+
+    public static class Cache {
+
+        private boolean enabled;
+
+        private long maximumSize = 10_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+    }
+
+    public static class Claims {
+
+        private ClaimProfile profile = ClaimProfile.STANDARD;
+
+        private boolean includeName = true;
+
+        private boolean includeEmail = true;
+
+        private long hydrationCacheSize = 10_000;
+
+        private long hydrationCacheTtlSeconds = 300;
+
+        public ClaimProfile getProfile() {
+            return profile;
+        }
+
+        public void setProfile(ClaimProfile profile) {
+            this.profile = profile;
+        }
+
+        public boolean isIncludeName() {
+            return includeName;
+        }
+
+        public void setIncludeName(boolean includeName) {
+            this.includeName = includeName;
+        }
+
+        public boolean isIncludeEmail() {
+            return includeEmail;
+        }
+
+        public void setIncludeEmail(boolean includeEmail) {
+            this.includeEmail = includeEmail;
+        }
+
+        public long getHydrationCacheSize() {
+            return hydrationCacheSize;
+        }
+
+        public void setHydrationCacheSize(long hydrationCacheSize) {
+            this.hydrationCacheSize = hydrationCacheSize;
+        }
+
+        public long getHydrationCacheTtlSeconds() {
+            return hydrationCacheTtlSeconds;
+        }
+
+        public void setHydrationCacheTtlSeconds(long hydrationCacheTtlSeconds) {
+            this.hydrationCacheTtlSeconds = hydrationCacheTtlSeconds;
+        }
+    }
+
+    public static class Authorities {
+
+        private List<String> roles = new ArrayList<>();
+
+        private List<String> scopes = new ArrayList<>();
+
+        public List<String> getRoles() {
+            return roles;
+        }
+
+        public void setRoles(List<String> roles) {
+            this.roles = roles;
+        }
+
+        public List<String> getScopes() {
+            return scopes;
+        }
+
+        public void setScopes(List<String> scopes) {
+            this.scopes = scopes;
+        }
+    }
+
+    public static class Hashing {
+
+        private int maxConcurrency = Runtime.getRuntime().availableProcessors();
+
+        private int queueCapacity = 100;
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public static class Lookup {
+
+        private int maxConcurrency = 64;
+
+        private int queueCapacity = 1000;
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public static class Password {
+
+        private PasswordEncoderType encoder = PasswordEncoderType.BCRYPT;
+
+        private final Bcrypt bcrypt = new Bcrypt();
+
+        private final Argon2 argon2 = new Argon2();
+
+        private final Pbkdf2 pbkdf2 = new Pbkdf2();
+
+        private final Calibration calibration = new Calibration();
+
+        public PasswordEncoderType getEncoder() {
+            return encoder;
+        }
+
+        public void setEncoder(PasswordEncoderType encoder) {
+            this.encoder = encoder;
+        }
+
+        public Bcrypt getBcrypt() {
+            return bcrypt;
+        }
+
+        public Argon2 getArgon2() {
+            return argon2;
+        }
+
+        public Pbkdf2 getPbkdf2() {
+            return pbkdf2;
+        }
+
+        public Calibration getCalibration() {
+            return calibration;
+        }
+    }
+
+    public static class Bcrypt {
+
+        private int strength = 10;
+
+        public int getStrength() {
+            return strength;
+        }
+
+        public void setStrength(int strength) {
+            this.strength = strength;
+        }
+    }
+
+    public static class Argon2 {
+
+        private int saltLength = 16;
+
+        private int hashLength = 32;
+
+        private int parallelism = 1;
+
+        private int memory = 16384;
+
+        private int iterations = 2;
+
+        public int getSaltLength() {
+            return saltLength;
+        }
+
+        public void setSaltLength(int saltLength) {
+            this.saltLength = saltLength;
+        }
+
+        public int getHashLength() {
+            return hashLength;
+        }
+
+        public void setHashLength(int hashLength) {
+            this.hashLength = hashLength;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMemory() {
+            return memory;
+        }
+
+        public void setMemory(int memory) {
+            this.memory = memory;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public void setIterations(int iterations) {
+            this.iterations = iterations;
+        }
+    }
+
+    public static class Pbkdf2 {
+
+        private int saltLength = 16;
+
+        private int iterations = 310000;
+
+        private String algorithm = "PBKDF2WithHmacSHA256";
+
+        public int getSaltLength() {
+            return saltLength;
+        }
+
+        public void setSaltLength(int saltLength) {
+            this.saltLength = saltLength;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public void setIterations(int iterations) {
+            this.iterations = iterations;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(String algorithm) {
+            this.algorithm = algorithm;
+        }
+    }
+
+    public static class Calibration {
+
+        private boolean enabled;
+
+        private long targetMillis = 250;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTargetMillis() {
+            return targetMillis;
+        }
+
+        public void setTargetMillis(long targetMillis) {
+            this.targetMillis = targetMillis;
+        }
+    }
+
+    public static class Refresh {
+
+        private boolean rotation;
+
+        private int storeShards = 64;
+
+        public boolean isRotation() {
+            return rotation;
+        }
+
+        public void setRotation(boolean rotation) {
+            this.rotation = rotation;
+        }
+
+        public int getStoreShards() {
+            return storeShards;
+        }
+
+        public void setStoreShards(int storeShards) {
+            this.storeShards = storeShards;
+        }
+    }
+
+    public static class Revocation {
+
+        private boolean enabled;
+
+        private long expectedRevocations = 10_000;
+
+        private double falsePositiveRate = 0.01;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getExpectedRevocations() {
+            return expectedRevocations;
+        }
+
+        public void setExpectedRevocations(long expectedRevocations) {
+            this.expectedRevocations = expectedRevocations;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+    }
+
+    public static class Sessions {
+
+        private boolean enabled;
+
+        private int expectedSubjects = 1024;
+
+        private String snapshotFile;
+
+        private long snapshotIntervalSeconds = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getExpectedSubjects() {
+            return expectedSubjects;
+        }
+
+        public void setExpectedSubjects(int expectedSubjects) {
+            this.expectedSubjects = expectedSubjects;
+        }
+
+        public String getSnapshotFile() {
+            return snapshotFile;
+        }
+
+        public void setSnapshotFile(String snapshotFile) {
+            this.snapshotFile = snapshotFile;
+        }
+
+        public long getSnapshotIntervalSeconds() {
+            return snapshotIntervalSeconds;
+        }
+
+        public void setSnapshotIntervalSeconds(long snapshotIntervalSeconds) {
+            this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+        }
+    }
+
+    public static class Reactive {
+
+        private boolean offload;
+
+        public boolean isOffload() {
+            return offload;
+        }
+
+        public void setOffload(boolean offload) {
+            this.offload = offload;
+        }
+    }
+
+    public static class RateLimit {
+
+        private boolean enabled;
+
+        private int maxFailuresPerUser = 5;
+
+        private int maxFailuresPerClient = 50;
+
+        private long windowSeconds = 900;
+
+        private int sketchWidth = 16_384;
+
+        private int sketchDepth = 4;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxFailuresPerUser() {
+            return maxFailuresPerUser;
+        }
+
+        public void setMaxFailuresPerUser(int maxFailuresPerUser) {
+            this.maxFailuresPerUser = maxFailuresPerUser;
+        }
+
+        public int getMaxFailuresPerClient() {
+            return maxFailuresPerClient;
+        }
+
+        public void setMaxFailuresPerClient(int maxFailuresPerClient) {
+            this.maxFailuresPerClient = maxFailuresPerClient;
+        }
+
+        public long getWindowSeconds() {
+            return windowSeconds;
+        }
+
+        public void setWindowSeconds(long windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        public int getSketchDepth() {
+            return sketchDepth;
+        }
+
+        public void setSketchDepth(int sketchDepth) {
+            this.sketchDepth = sketchDepth;
+        }
+    }
+
+    public static class Filter {
+
+        private List<String> include = new ArrayList<>();
+
+        private List<String> exclude = new ArrayList<>();
+
+        private boolean lazyPrincipal;
+
+        private List<String> schemes = new ArrayList<>(List.of("Bearer"));
+
+        private String cookieName;
+
+        private String queryParameter;
+
+        public List<String> getInclude() {
+            return include;
+        }
+
+        public void setInclude(List<String> include) {
+            this.include = include;
+        }
+
+        public List<String> getExclude() {
+            return exclude;
+        }
+
+        public void setExclude(List<String> exclude) {
+            this.exclude = exclude;
+        }
+
+        public boolean isLazyPrincipal() {
+            return lazyPrincipal;
+        }
+
+        public void setLazyPrincipal(boolean lazyPrincipal) {
+            this.lazyPrincipal = lazyPrincipal;
+        }
+
+        public List<String> getSchemes() {
+            return schemes;
+        }
+
+        public void setSchemes(List<String> schemes) {
+            this.schemes = schemes;
+        }
+
+        public String getCookieName() {
+            return cookieName;
+        }
+
+        public void setCookieName(String cookieName) {
+            this.cookieName = cookieName;
+        }
+
+        public String getQueryParameter() {
+            return queryParameter;
+        }
+
+        public void setQueryParameter(String queryParameter) {
+            this.queryParameter = queryParameter;
+        }
+    }
 }
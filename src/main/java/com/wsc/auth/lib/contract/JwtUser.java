@@ -1,9 +1,26 @@
 package com.wsc.auth.lib.contract;
 
+import java.util.Map;
+import java.util.Set;
+
 public interface JwtUser {
 
     Long getId();
     String getName();
     String getEmail();
     String getRole();
+
+    // Every role the user holds; getRole() stays the primary one.
+    default Set<String> getRoles() {
+        return getRole() != null ? Set.of(getRole()) : Set.of();
+    }
+
+    default Set<String> getScopes() {
+        return Set.of();
+    }
+
+    // Extra claims written to the token; values must be JSON-serializable.
+    default Map<String, Object> getClaims() {
+        return Map.of();
+    }
 }
@@ -0,0 +1,11 @@
+package com.wsc.auth.lib.contract;
+
+// Supplies the profile fields a compact token leaves out. Implementations
+// usually read from the user store; return null for unknown users. load is
+// called synchronously during validation and may block: the auto-configured
+// WebFlux filter offloads validation whenever a hydrator bean exists, and a
+// hand-built JwtServerAuthenticationConverter must be given a scheduler.
+public interface UserInfoHydrator {
+
+    JwtUser load(Long userId);
+}
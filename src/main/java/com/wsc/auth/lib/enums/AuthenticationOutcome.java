@@ -0,0 +1,8 @@
+package com.wsc.auth.lib.enums;
+
+public enum AuthenticationOutcome {
+
+    AUTHENTICATED,
+    NO_TOKEN,
+    INVALID_TOKEN;
+}
@@ -0,0 +1,7 @@
+package com.wsc.auth.lib.enums;
+
+public enum ClaimProfile {
+
+    STANDARD,
+    COMPACT;
+}
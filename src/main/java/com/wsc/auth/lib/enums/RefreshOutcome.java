@@ -0,0 +1,9 @@
+package com.wsc.auth.lib.enums;
+
+public enum RefreshOutcome {
+
+    REFRESHED,
+    INVALID_TOKEN,
+    NOT_REFRESH_TOKEN,
+    REUSE_DETECTED;
+}
@@ -0,0 +1,8 @@
+package com.wsc.auth.lib.enums;
+
+public enum RotationResult {
+
+    ROTATED,
+    REUSED,
+    UNKNOWN;
+}
@@ -0,0 +1,29 @@
+package com.wsc.auth.lib.enums;
+
+public enum SigningAlgorithm {
+
+    HS256(null),
+    HS384(null),
+    HS512(null),
+    RS256("RSA"),
+    RS384("RSA"),
+    RS512("RSA"),
+    ES256("EC"),
+    ES384("EC"),
+    ES512("EC"),
+    EdDSA("EdDSA");
+
+    private final String keyFactoryAlgorithm;
+
+    SigningAlgorithm(String keyFactoryAlgorithm) {
+        this.keyFactoryAlgorithm = keyFactoryAlgorithm;
+    }
+
+    public boolean isHmac() {
+        return keyFactoryAlgorithm == null;
+    }
+
+    public String getKeyFactoryAlgorithm() {
+        return keyFactoryAlgorithm;
+    }
+}
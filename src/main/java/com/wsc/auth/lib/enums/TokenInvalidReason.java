@@ -0,0 +1,12 @@
+package com.wsc.auth.lib.enums;
+
+public enum TokenInvalidReason {
+
+    EXPIRED,
+    INVALID_SIGNATURE,
+    MALFORMED,
+    UNSUPPORTED,
+    WRONG_TYPE,
+    INVALID_CLAIMS,
+    REVOKED;
+}
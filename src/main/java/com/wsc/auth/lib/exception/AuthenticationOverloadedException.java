@@ -0,0 +1,8 @@
+package com.wsc.auth.lib.exception;
+
+public class AuthenticationOverloadedException extends RuntimeException {
+
+    public AuthenticationOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.wsc.auth.lib.exception;
+
+public class AuthenticationRateLimitedException extends RuntimeException {
+
+    public AuthenticationRateLimitedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.wsc.auth.lib.exception;
+
+public class RefreshTokenReuseException extends RuntimeException {
+
+    private final String familyId;
+
+    public RefreshTokenReuseException(String familyId) {
+        super("Refresh token reuse detected; the token family has been revoked");
+        this.familyId = familyId;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+}
@@ -0,0 +1,33 @@
+package com.wsc.auth.lib.executor;
+
+import java.util.function.Supplier;
+import java.util.concurrent.CompletableFuture;
+
+public interface AuthTaskExecutor {
+
+    // Runs the task on the calling thread; used when no executor is configured.
+    AuthTaskExecutor DIRECT = new AuthTaskExecutor() {
+        @Override
+        public <T> CompletableFuture<T> submit(Supplier<T> task) {
+            try {
+                return CompletableFuture.completedFuture(task.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+    };
+
+    <T> CompletableFuture<T> submit(Supplier<T> task);
+
+    default int activeCount() {
+        return 0;
+    }
+
+    default int queueSize() {
+        return 0;
+    }
+
+    default long rejectedCount() {
+        return 0;
+    }
+}
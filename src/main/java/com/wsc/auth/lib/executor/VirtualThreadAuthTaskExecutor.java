@@ -0,0 +1,108 @@
+package com.wsc.auth.lib.executor;
+
+import com.wsc.auth.lib.exception.AuthenticationOverloadedException;
+
+import java.io.Closeable;
+import java.util.function.Supplier;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.RejectedExecutionException;
+
+// One virtual thread per task. Two semaphores replace the pool and queue of
+// BoundedAuthTaskExecutor: "admitted" caps running plus waiting tasks and fails
+// fast when exhausted, "running" caps how many execute at once. Waiting for a
+// running permit parks the virtual thread without holding a carrier.
+public class VirtualThreadAuthTaskExecutor implements AuthTaskExecutor, Closeable {
+
+    private final ExecutorService executor;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final int maxConcurrency;
+    private final int capacity;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public VirtualThreadAuthTaskExecutor(String name, int maxConcurrency, int queueCapacity) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("queueCapacity must not be negative");
+        }
+
+        ThreadFactory threadFactory = Thread.ofVirtual().name(name + "-", 1).factory();
+
+        this.executor = Executors.newThreadPerTaskExecutor(threadFactory);
+        this.admitted = new Semaphore(maxConcurrency + queueCapacity);
+        this.running = new Semaphore(maxConcurrency);
+        this.maxConcurrency = maxConcurrency;
+        this.capacity = maxConcurrency + queueCapacity;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (!admitted.tryAcquire()) {
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(new AuthenticationOverloadedException("Too many concurrent authentication requests"));
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    run(task, future);
+                } finally {
+                    admitted.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Closed executor: give the permit back so the counters stay honest.
+            admitted.release();
+            rejected.incrementAndGet();
+            future.completeExceptionally(new AuthenticationOverloadedException("Too many concurrent authentication requests"));
+        }
+        return future;
+    }
+
+    private <T> void run(Supplier<T> task, CompletableFuture<T> future) {
+        try {
+            running.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return;
+        }
+
+        try {
+            future.complete(task.get());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            running.release();
+        }
+    }
+
+    @Override
+    public int activeCount() {
+        return maxConcurrency - running.availablePermits();
+    }
+
+    @Override
+    public int queueSize() {
+        int inFlight = capacity - admitted.availablePermits();
+        return Math.max(0, inFlight - activeCount());
+    }
+
+    @Override
+    public long rejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
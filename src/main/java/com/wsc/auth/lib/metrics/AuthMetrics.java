@@ -0,0 +1,48 @@
+package com.wsc.auth.lib.metrics;
+
+import com.wsc.auth.lib.enums.TokenType;
+import com.wsc.auth.lib.cache.VerifiedTokenCache;
+import com.wsc.auth.lib.enums.RefreshOutcome;
+import com.wsc.auth.lib.enums.TokenInvalidReason;
+import com.wsc.auth.lib.executor.AuthTaskExecutor;
+import com.wsc.auth.lib.enums.AuthenticationOutcome;
+import com.wsc.auth.lib.ratelimit.LoginAttemptLimiter;
+
+public interface AuthMetrics {
+
+    AuthMetrics NOOP = new AuthMetrics() {
+    };
+
+    // Returns the start marker handed back to the record methods; the no-op
+    // implementation skips the clock read entirely.
+    default long start() {
+        return 0L;
+    }
+
+    default void recordVerification(long start, TokenInvalidReason failure) {
+    }
+
+    default void recordSigning(long start, TokenType type) {
+    }
+
+    default void recordFilterRequest(long start, AuthenticationOutcome outcome) {
+    }
+
+    default void recordPasswordMatch(long start, boolean matched) {
+    }
+
+    default void recordRefresh(RefreshOutcome outcome) {
+    }
+
+    default void bindVerifiedTokenCache(VerifiedTokenCache cache) {
+    }
+
+    default void bindHashingExecutor(AuthTaskExecutor executor) {
+    }
+
+    default void bindLookupExecutor(AuthTaskExecutor executor) {
+    }
+
+    default void bindAttemptLimiter(LoginAttemptLimiter limiter) {
+    }
+}
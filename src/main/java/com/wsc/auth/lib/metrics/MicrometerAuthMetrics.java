@@ -0,0 +1,186 @@
+package com.wsc.auth.lib.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import com.wsc.auth.lib.enums.TokenType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Counter;
+import com.wsc.auth.lib.enums.RefreshOutcome;
+import com.wsc.auth.lib.executor.AuthTaskExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.wsc.auth.lib.cache.VerifiedTokenCache;
+import com.wsc.auth.lib.enums.TokenInvalidReason;
+import io.micrometer.core.instrument.FunctionCounter;
+import com.wsc.auth.lib.enums.AuthenticationOutcome;
+import com.wsc.auth.lib.ratelimit.LoginAttemptLimiter;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+public class MicrometerAuthMetrics implements AuthMetrics {
+
+    private final MeterRegistry registry;
+
+    private final Timer verificationSuccess;
+    private final Timer verificationFailure;
+    private final Counter[] failuresByReason;
+    private final Timer[] signing;
+    private final Timer[] filterRequests;
+    private final Counter noTokenRequests;
+    private final Timer passwordMatched;
+    private final Timer passwordMismatched;
+    private final Counter[] refreshes;
+
+    public MicrometerAuthMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        this.verificationSuccess = Timer.builder("wsc.auth.jwt.verification")
+                .description("Time spent verifying JWTs")
+                .tag("result", "valid")
+                .register(registry);
+
+        this.verificationFailure = Timer.builder("wsc.auth.jwt.verification")
+                .description("Time spent verifying JWTs")
+                .tag("result", "invalid")
+                .register(registry);
+
+        TokenInvalidReason[] reasons = TokenInvalidReason.values();
+        this.failuresByReason = new Counter[reasons.length];
+        for (TokenInvalidReason reason : reasons) {
+            failuresByReason[reason.ordinal()] = Counter.builder("wsc.auth.jwt.verification.failures")
+                    .description("Rejected JWTs by reason")
+                    .tag("reason", tagValue(reason))
+                    .register(registry);
+        }
+
+        TokenType[] types = TokenType.values();
+        this.signing = new Timer[types.length];
+        for (TokenType type : types) {
+            signing[type.ordinal()] = Timer.builder("wsc.auth.jwt.signing")
+                    .description("Time spent signing JWTs")
+                    .tag("type", tagValue(type))
+                    .register(registry);
+        }
+
+        AuthenticationOutcome[] outcomes = AuthenticationOutcome.values();
+        this.filterRequests = new Timer[outcomes.length];
+        for (AuthenticationOutcome outcome : outcomes) {
+            filterRequests[outcome.ordinal()] = Timer.builder("wsc.auth.filter.requests")
+                    .description("Time spent in the JWT authentication filter")
+                    .tag("outcome", tagValue(outcome))
+                    .register(registry);
+        }
+        this.noTokenRequests = Counter.builder("wsc.auth.filter.requests.without.token")
+                .description("Requests that reached the filter without a bearer token")
+                .register(registry);
+
+        this.passwordMatched = Timer.builder("wsc.auth.password.match")
+                .description("Time spent comparing password hashes")
+                .tag("result", "matched")
+                .register(registry);
+        this.passwordMismatched = Timer.builder("wsc.auth.password.match")
+                .description("Time spent comparing password hashes")
+                .tag("result", "mismatched")
+                .register(registry);
+
+        RefreshOutcome[] refreshOutcomes = RefreshOutcome.values();
+        this.refreshes = new Counter[refreshOutcomes.length];
+        for (RefreshOutcome outcome : refreshOutcomes) {
+            refreshes[outcome.ordinal()] = Counter.builder("wsc.auth.refresh")
+                    .description("Refresh token exchanges by outcome")
+                    .tag("outcome", tagValue(outcome))
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void bindVerifiedTokenCache(VerifiedTokenCache cache) {
+        FunctionCounter.builder("wsc.auth.jwt.cache.requests", cache, VerifiedTokenCache::hitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("wsc.auth.jwt.cache.requests", cache, VerifiedTokenCache::missCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("wsc.auth.jwt.cache.evictions", cache, VerifiedTokenCache::evictionCount)
+                .register(registry);
+    }
+
+    @Override
+    public void bindHashingExecutor(AuthTaskExecutor executor) {
+        Gauge.builder("wsc.auth.password.hashing.active", executor, AuthTaskExecutor::activeCount)
+                .description("Password hashing tasks currently running")
+                .register(registry);
+        Gauge.builder("wsc.auth.password.hashing.queued", executor, AuthTaskExecutor::queueSize)
+                .description("Password hashing tasks waiting for a thread")
+                .register(registry);
+        FunctionCounter.builder("wsc.auth.password.hashing.rejected", executor, AuthTaskExecutor::rejectedCount)
+                .description("Password hashing tasks rejected because the queue was full")
+                .register(registry);
+    }
+
+    @Override
+    public void bindLookupExecutor(AuthTaskExecutor executor) {
+        Gauge.builder("wsc.auth.lookup.active", executor, AuthTaskExecutor::activeCount)
+                .description("Token store lookups currently running")
+                .register(registry);
+        Gauge.builder("wsc.auth.lookup.queued", executor, AuthTaskExecutor::queueSize)
+                .description("Token store lookups waiting for a permit")
+                .register(registry);
+        FunctionCounter.builder("wsc.auth.lookup.rejected", executor, AuthTaskExecutor::rejectedCount)
+                .description("Token store lookups rejected because the queue was full")
+                .register(registry);
+    }
+
+    @Override
+    public void bindAttemptLimiter(LoginAttemptLimiter limiter) {
+        FunctionCounter.builder("wsc.auth.login.failures", limiter, LoginAttemptLimiter::failureCount)
+                .description("Failed login attempts counted by the attempt limiter")
+                .register(registry);
+        FunctionCounter.builder("wsc.auth.login.rejected", limiter, LoginAttemptLimiter::rejectedCount)
+                .description("Login attempts rejected before the password was checked")
+                .register(registry);
+    }
+
+    @Override
+    public long start() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void recordVerification(long start, TokenInvalidReason failure) {
+        long elapsed = System.nanoTime() - start;
+
+        if (failure == null) {
+            verificationSuccess.record(elapsed, TimeUnit.NANOSECONDS);
+            return;
+        }
+        verificationFailure.record(elapsed, TimeUnit.NANOSECONDS);
+        failuresByReason[failure.ordinal()].increment();
+    }
+
+    @Override
+    public void recordSigning(long start, TokenType type) {
+        signing[type.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordFilterRequest(long start, AuthenticationOutcome outcome) {
+        filterRequests[outcome.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (outcome == AuthenticationOutcome.NO_TOKEN) {
+            noTokenRequests.increment();
+        }
+    }
+
+    @Override
+    public void recordPasswordMatch(long start, boolean matched) {
+        (matched ? passwordMatched : passwordMismatched).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordRefresh(RefreshOutcome outcome) {
+        refreshes[outcome.ordinal()].increment();
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
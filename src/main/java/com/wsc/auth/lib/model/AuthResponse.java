@@ -5,6 +5,11 @@ public record AuthResponse(
         String refreshToken,
         String tokenType,
         Long expiresAt,
-        UserInfo userInfo
+        UserInfo userInfo,
+        boolean passwordUpgradeRequired
 ) {
+
+    public AuthResponse(String accessToken, String refreshToken, String tokenType, Long expiresAt, UserInfo userInfo) {
+        this(accessToken, refreshToken, tokenType, expiresAt, userInfo, false);
+    }
 }
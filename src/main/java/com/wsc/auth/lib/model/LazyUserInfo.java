@@ -0,0 +1,63 @@
+package com.wsc.auth.lib.model;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// UserInfo whose id is known up front and whose other fields are decoded on
+// first access. The loader may run more than once under contention; it is
+// idempotent, so the first result to be published wins.
+public final class LazyUserInfo extends UserInfo {
+
+    private final Supplier<UserInfo> loader;
+
+    private volatile UserInfo loaded;
+
+    public LazyUserInfo(Long id, Supplier<UserInfo> loader) {
+        super(id, null, null, null, null, Set.of(), Map.of());
+        this.loader = loader;
+    }
+
+    public boolean isLoaded() {
+        return loaded != null;
+    }
+
+    @Override
+    public String getName() {
+        return this.load().getName();
+    }
+
+    @Override
+    public String getEmail() {
+        return this.load().getEmail();
+    }
+
+    @Override
+    public String getRole() {
+        return this.load().getRole();
+    }
+
+    @Override
+    public Set<String> getRoles() {
+        return this.load().getRoles();
+    }
+
+    @Override
+    public Set<String> getScopes() {
+        return this.load().getScopes();
+    }
+
+    @Override
+    public Map<String, Object> getClaims() {
+        return this.load().getClaims();
+    }
+
+    private UserInfo load() {
+        UserInfo userInfo = loaded;
+        if (userInfo == null) {
+            userInfo = loader.get();
+            loaded = userInfo;
+        }
+        return userInfo;
+    }
+}
@@ -0,0 +1,48 @@
+package com.wsc.auth.lib.model;
+
+// Access and refresh tokens issued together, index-aligned with the users the
+// batch was built from. Kept as two arrays and shared timestamps instead of an
+// AuthResponse per user.
+public final class TokenBatch {
+
+    private final String[] accessTokens;
+    private final String[] refreshTokens;
+    private final long issuedAt;
+    private final long accessExpiresAt;
+    private final long refreshExpiresAt;
+
+    public TokenBatch(String[] accessTokens, String[] refreshTokens, long issuedAt, long accessExpiresAt, long refreshExpiresAt) {
+        if (accessTokens.length != refreshTokens.length) {
+            throw new IllegalArgumentException("Access and refresh tokens must have the same length");
+        }
+        this.accessTokens = accessTokens;
+        this.refreshTokens = refreshTokens;
+        this.issuedAt = issuedAt;
+        this.accessExpiresAt = accessExpiresAt;
+        this.refreshExpiresAt = refreshExpiresAt;
+    }
+
+    public int size() {
+        return accessTokens.length;
+    }
+
+    public String accessToken(int index) {
+        return accessTokens[index];
+    }
+
+    public String refreshToken(int index) {
+        return refreshTokens[index];
+    }
+
+    public long issuedAt() {
+        return issuedAt;
+    }
+
+    public long accessExpiresAt() {
+        return accessExpiresAt;
+    }
+
+    public long refreshExpiresAt() {
+        return refreshExpiresAt;
+    }
+}
@@ -0,0 +1,41 @@
+package com.wsc.auth.lib.model;
+
+import com.wsc.auth.lib.enums.TokenType;
+import com.wsc.auth.lib.enums.TokenInvalidReason;
+
+public record TokenValidation(
+        boolean valid,
+        TokenInvalidReason reason,
+        TokenType type,
+        String subject,
+        UserInfo userInfo,
+        Long expiresAt,
+        String tokenId,
+        String familyId,
+        Long issuedAt
+) {
+
+    public static TokenValidation valid(TokenType type, String subject, UserInfo userInfo, Long expiresAt) {
+        return valid(type, subject, userInfo, expiresAt, null, null);
+    }
+
+    public static TokenValidation valid(TokenType type, String subject, UserInfo userInfo, Long expiresAt, String tokenId, String familyId) {
+        return valid(type, subject, userInfo, expiresAt, tokenId, familyId, null);
+    }
+
+    public static TokenValidation valid(TokenType type, String subject, UserInfo userInfo, Long expiresAt, String tokenId, String familyId, Long issuedAt) {
+        return new TokenValidation(true, null, type, subject, userInfo, expiresAt, tokenId, familyId, issuedAt);
+    }
+
+    public static TokenValidation invalid(TokenInvalidReason reason) {
+        return new TokenValidation(false, reason, null, null, null, null, null, null, null);
+    }
+
+    public boolean isAccessToken() {
+        return valid && type == TokenType.ACCESS;
+    }
+
+    public boolean isRefreshToken() {
+        return valid && type == TokenType.REFRESH;
+    }
+}
@@ -2,17 +2,30 @@ package com.wsc.auth.lib.model;
 
 import com.wsc.auth.lib.contract.JwtUser;
 
+import java.util.Map;
+import java.util.Set;
+
 public class UserInfo implements JwtUser {
     private Long id;
     private String name;
     private String email;
     private String role;
+    private Set<String> roles;
+    private Set<String> scopes;
+    private Map<String, Object> claims;
 
     public UserInfo(Long id, String name, String email, String role) {
+        this(id, name, email, role, null, Set.of(), Map.of());
+    }
+
+    public UserInfo(Long id, String name, String email, String role, Set<String> roles, Set<String> scopes, Map<String, Object> claims) {
         this.id = id;
         this.name = name;
         this.email = email;
         this.role = role;
+        this.roles = roles;
+        this.scopes = scopes;
+        this.claims = claims;
     }
 
     @Override
@@ -34,4 +47,48 @@ public class UserInfo implements JwtUser {
     public String getRole() {
         return role;
     }
+
+    @Override
+    public Set<String> getRoles() {
+        return roles != null ? roles : JwtUser.super.getRoles();
+    }
+
+    @Override
+    public Set<String> getScopes() {
+        return scopes;
+    }
+
+    @Override
+    public Map<String, Object> getClaims() {
+        return claims;
+    }
+
+    public boolean hasRole(String role) {
+        return getRoles().contains(role);
+    }
+
+    public boolean hasScope(String scope) {
+        return getScopes().contains(scope);
+    }
+
+    // JSON numbers come back as the narrowest type that fits, so numeric
+    // claims are converted to the requested wrapper instead of cast.
+    public <T> T getClaim(String name, Class<T> type) {
+        Object value = getClaims().get(name);
+        if (value == null || type.isInstance(value)) {
+            return type.cast(value);
+        }
+        if (value instanceof Number number) {
+            if (type == Long.class) {
+                return type.cast(number.longValue());
+            }
+            if (type == Integer.class) {
+                return type.cast(number.intValue());
+            }
+            if (type == Double.class) {
+                return type.cast(number.doubleValue());
+            }
+        }
+        throw new IllegalArgumentException("Claim '" + name + "' is not a " + type.getSimpleName());
+    }
 }
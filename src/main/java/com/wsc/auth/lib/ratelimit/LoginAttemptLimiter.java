@@ -0,0 +1,127 @@
+package com.wsc.auth.lib.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts failed logins per user (an account id or the login as submitted) and
+// per caller-supplied client key (an IP address, an API key) in sliding
+// windows. Each attempt is counted before the password hash is compared, so
+// once a key is over its limit further attempts are turned away after a few
+// array reads instead of a BCrypt round.
+//
+// Both dimensions live in count-min sketches of fixed size, so memory does not
+// grow with the number of distinct users or clients. Collisions can only make
+// a key look busier than it is; size the sketch so that stays rare. String
+// keys are hashed in full with a per-instance secret key, so a caller cannot
+// pick a login or client key that shares every sketch cell with a victim's.
+public class LoginAttemptLimiter {
+
+    private final int maxFailuresPerUser;
+    private final int maxFailuresPerClient;
+    private final WindowedCountMinSketch userFailures;
+    private final WindowedCountMinSketch clientFailures;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final SipHash keyHash = new SipHash();
+
+    public LoginAttemptLimiter(int maxFailuresPerUser, int maxFailuresPerClient, Duration window, int width, int depth) {
+        if (maxFailuresPerUser <= 0 || maxFailuresPerClient <= 0) {
+            throw new IllegalArgumentException("maxFailuresPerUser and maxFailuresPerClient must be positive");
+        }
+        this.maxFailuresPerUser = maxFailuresPerUser;
+        this.maxFailuresPerClient = maxFailuresPerClient;
+        this.userFailures = new WindowedCountMinSketch(width, depth, window.toMillis());
+        this.clientFailures = new WindowedCountMinSketch(width, depth, window.toMillis());
+    }
+
+    // Reserves one attempt against both keys before the hash is compared, so a
+    // burst of concurrent logins cannot all pass the check before the first
+    // failure is counted. Returns null when either key is over its limit; a
+    // null key is not limited. The reservation stands as a failure unless
+    // recordSuccess takes it back.
+    public Attempt acquire(Long userId, String clientKey) {
+        return this.acquire(userId != null, userId == null ? 0 : hash(userId), clientKey);
+    }
+
+    // Keys the user dimension by the login as submitted rather than by an
+    // account id, so a name with no account behind it locks out exactly like
+    // a real one and the limit does not reveal which names exist.
+    public Attempt acquireForLogin(String login, String clientKey) {
+        return this.acquire(login != null, login == null ? 0 : keyHash.hash(login), clientKey);
+    }
+
+    private Attempt acquire(boolean limitUser, long userHash, String clientKey) {
+        long now = System.currentTimeMillis();
+        long clientHash = clientKey == null ? 0 : keyHash.hash(clientKey);
+
+        Attempt attempt = new Attempt(
+                userHash,
+                limitUser ? userFailures.add(userHash, now) : Attempt.NONE,
+                clientHash,
+                clientKey == null ? Attempt.NONE : clientFailures.add(clientHash, now)
+        );
+
+        boolean blocked = (attempt.userWindow != Attempt.NONE && userFailures.estimate(attempt.userHash, now) > maxFailuresPerUser)
+                || (attempt.clientWindow != Attempt.NONE && clientFailures.estimate(attempt.clientHash, now) > maxFailuresPerClient);
+
+        if (blocked) {
+            this.refund(attempt);
+            rejected.increment();
+            return null;
+        }
+        return attempt;
+    }
+
+    public void recordFailure(Attempt attempt) {
+        failures.increment();
+    }
+
+    public void recordSuccess(Attempt attempt) {
+        this.refund(attempt);
+    }
+
+    private void refund(Attempt attempt) {
+        if (attempt.userWindow != Attempt.NONE) {
+            userFailures.remove(attempt.userHash, attempt.userWindow);
+        }
+        if (attempt.clientWindow != Attempt.NONE) {
+            clientFailures.remove(attempt.clientHash, attempt.clientWindow);
+        }
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public long failureCount() {
+        return failures.sum();
+    }
+
+    private static long hash(long value) {
+        long hash = value * 0x9e3779b97f4a7c15L;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    // The sketch cells and windows one acquire counted, so they can be refunded.
+    public static final class Attempt {
+
+        private static final long NONE = Long.MIN_VALUE;
+
+        private final long userHash;
+        private final long userWindow;
+        private final long clientHash;
+        private final long clientWindow;
+
+        private Attempt(long userHash, long userWindow, long clientHash, long clientWindow) {
+            this.userHash = userHash;
+            this.userWindow = userWindow;
+            this.clientHash = clientHash;
+            this.clientWindow = clientWindow;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.wsc.auth.lib.ratelimit;
+
+import java.security.SecureRandom;
+
+// SipHash-2-4 keyed with random bits per instance. Attacker-chosen strings
+// such as logins cannot be crafted to collide without knowing the key, which
+// String.hashCode offers no protection against ("Aa" and "BB" always do).
+// Characters are hashed as their UTF-16LE bytes, read in place.
+final class SipHash {
+
+    private final long k0;
+    private final long k1;
+
+    SipHash() {
+        this(new SecureRandom());
+    }
+
+    private SipHash(SecureRandom random) {
+        this(random.nextLong(), random.nextLong());
+    }
+
+    SipHash(long k0, long k1) {
+        this.k0 = k0;
+        this.k1 = k1;
+    }
+
+    long hash(CharSequence value) {
+        long[] v = {
+                k0 ^ 0x736f6d6570736575L,
+                k1 ^ 0x646f72616e646f6dL,
+                k0 ^ 0x6c7967656e657261L,
+                k1 ^ 0x7465646279746573L
+        };
+
+        int length = value.length();
+        int end = length & ~3;
+        for (int i = 0; i < end; i += 4) {
+            long word = value.charAt(i)
+                    | (long) value.charAt(i + 1) << 16
+                    | (long) value.charAt(i + 2) << 32
+                    | (long) value.charAt(i + 3) << 48;
+            absorb(v, word);
+        }
+
+        long last = (long) (length * 2 & 0xff) << 56;
+        for (int i = end; i < length; i++) {
+            last |= (long) value.charAt(i) << ((i - end) * 16);
+        }
+        absorb(v, last);
+
+        v[2] ^= 0xff;
+        rounds(v, 4);
+        return v[0] ^ v[1] ^ v[2] ^ v[3];
+    }
+
+    private static void absorb(long[] v, long word) {
+        v[3] ^= word;
+        rounds(v, 2);
+        v[0] ^= word;
+    }
+
+    private static void rounds(long[] v, int count) {
+        for (int i = 0; i < count; i++) {
+            v[0] += v[1];
+            v[1] = Long.rotateLeft(v[1], 13) ^ v[0];
+            v[0] = Long.rotateLeft(v[0], 32);
+            v[2] += v[3];
+            v[3] = Long.rotateLeft(v[3], 16) ^ v[2];
+            v[0] += v[3];
+            v[3] = Long.rotateLeft(v[3], 21) ^ v[0];
+            v[2] += v[1];
+            v[1] = Long.rotateLeft(v[1], 17) ^ v[2];
+            v[2] = Long.rotateLeft(v[2], 32);
+        }
+    }
+}
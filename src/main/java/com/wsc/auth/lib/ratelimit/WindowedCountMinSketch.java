@@ -0,0 +1,124 @@
+package com.wsc.auth.lib.ratelimit;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Approximate per-key event counts over a sliding window in fixed memory.
+// Each fixed window gets its own count-min sketch; an estimate adds the
+// current window to the previous one weighted by how much of it still falls
+// inside the sliding window. Counts may be overestimated on collisions but
+// never underestimated.
+final class WindowedCountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final long windowMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Window current;
+    private volatile Window previous;
+
+    WindowedCountMinSketch(int width, int depth, long windowMillis) {
+        if (width <= 0 || depth <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("width, depth and window must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = depth;
+        this.mask = size - 1;
+        this.windowMillis = windowMillis;
+        this.current = new Window(0, depth * size);
+        this.previous = new Window(0, 0);
+    }
+
+    // Returns the start of the window the event landed in, for remove.
+    long add(long hash, long now) {
+        Window window = this.windowAt(now);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            window.counters.incrementAndGet(this.index(row, h1, h2));
+        }
+        return window.start;
+    }
+
+    // Takes back an event added to the window starting at windowStart; once
+    // that window has slid out there is nothing left to take back.
+    void remove(long hash, long windowStart) {
+        Window window = current;
+        if (window.start != windowStart) {
+            window = previous;
+            if (window.start != windowStart || window.counters.length() == 0) {
+                return;
+            }
+        }
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            window.counters.decrementAndGet(this.index(row, h1, h2));
+        }
+    }
+
+    long estimate(long hash, long now) {
+        Window window = this.windowAt(now);
+        Window last = previous;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        long count = this.min(window, h1, h2);
+        if (last.counters.length() == 0 || last.start + windowMillis != window.start) {
+            return count;
+        }
+
+        double remaining = 1.0 - (double) (now - window.start) / windowMillis;
+        return count + (long) Math.ceil(this.min(last, h1, h2) * remaining);
+    }
+
+    private long min(Window window, int h1, int h2) {
+        if (window.counters.length() == 0) {
+            return 0;
+        }
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, window.counters.get(this.index(row, h1, h2)));
+        }
+        return min;
+    }
+
+    private int index(int row, int h1, int h2) {
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+
+    // A new window gets fresh counters rather than clearing the old ones, so a
+    // writer still holding the previous window never touches the new counts.
+    private Window windowAt(long now) {
+        Window window = current;
+        if (now < window.start + windowMillis) {
+            return window;
+        }
+
+        lock.lock();
+        try {
+            window = current;
+            if (now >= window.start + windowMillis) {
+                long start = now - Math.floorMod(now, windowMillis);
+                previous = start - window.start == windowMillis ? window : new Window(start - windowMillis, 0);
+                window = new Window(start, depth * (mask + 1));
+                current = window;
+            }
+            return window;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Window {
+
+        private final long start;
+        private final AtomicIntegerArray counters;
+
+        private Window(long start, int size) {
+            this.start = start;
+            this.counters = new AtomicIntegerArray(size);
+        }
+    }
+}
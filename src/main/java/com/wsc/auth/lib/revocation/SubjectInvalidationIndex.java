@@ -0,0 +1,310 @@
+package com.wsc.auth.lib.revocation;
+
+import java.nio.file.Path;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Minimum accepted "iat" (epoch seconds) per numeric subject. Lookups are
+// lock-free over an open-addressing table of primitive longs; writers take a
+// lock, publish the value before the key, and swap in a larger table on growth.
+// Snapshots copy the entries under the lock and do their file I/O outside it.
+public class SubjectInvalidationIndex {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int SNAPSHOT_MAGIC = 0x57534349;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_BYTES = 12;
+    private static final int SNAPSHOT_ENTRY_BYTES = 16;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong modifications = new AtomicLong();
+
+    private volatile Table table;
+    private int size;
+
+    public SubjectInvalidationIndex(int expectedSubjects) {
+        this.table = new Table(capacityFor(expectedSubjects));
+    }
+
+    public boolean isInvalidated(long subject, long issuedAtSeconds) {
+        long minimum = table.get(subject);
+        return minimum != EMPTY && issuedAtSeconds < minimum;
+    }
+
+    public long minimumIssuedAt(long subject) {
+        long minimum = table.get(subject);
+        return minimum == EMPTY ? 0L : minimum;
+    }
+
+    public void invalidateBefore(long subject, long epochSecond) {
+        requireKey(subject);
+        lock.lock();
+        try {
+            this.put(subject, epochSecond);
+        } finally {
+            lock.unlock();
+        }
+        modifications.incrementAndGet();
+    }
+
+    // Sets the cutoff to at least epochSecond and past any cutoff already set,
+    // so tokens issued at a still-future cutoff are covered too. Returns the
+    // new cutoff.
+    public long advance(long subject, long epochSecond) {
+        requireKey(subject);
+        long cutoff;
+        lock.lock();
+        try {
+            long current = table.get(subject);
+            cutoff = current == EMPTY ? epochSecond : Math.max(epochSecond, current + 1);
+            this.put(subject, cutoff);
+        } finally {
+            lock.unlock();
+        }
+        modifications.incrementAndGet();
+        return cutoff;
+    }
+
+    public void invalidateBefore(long[] subjects, long epochSecond) {
+        for (long subject : subjects) {
+            requireKey(subject);
+        }
+        lock.lock();
+        try {
+            this.ensureCapacity(size + subjects.length);
+            for (long subject : subjects) {
+                this.put(subject, epochSecond);
+            }
+        } finally {
+            lock.unlock();
+        }
+        modifications.incrementAndGet();
+    }
+
+    // Entries at or below the cutoff no longer reject anything once every token
+    // issued before it has expired, so callers pass now minus the longest TTL.
+    public int purgeOlderThan(long epochSecond) {
+        lock.lock();
+        try {
+            Table current = table;
+            Table rebuilt = new Table(current.capacity());
+            int removed = 0;
+
+            for (int i = 0; i < current.capacity(); i++) {
+                long key = current.keyAt(i);
+                if (key == EMPTY) {
+                    continue;
+                }
+                long value = current.valueAt(i);
+                if (value <= epochSecond) {
+                    removed++;
+                } else {
+                    rebuilt.put(key, value);
+                }
+            }
+
+            if (removed > 0) {
+                size -= removed;
+                table = rebuilt;
+                modifications.incrementAndGet();
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long modificationCount() {
+        return modifications.get();
+    }
+
+    public void writeSnapshot(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+        long[] entries;
+        lock.lock();
+        try {
+            Table current = table;
+            entries = new long[size * 2];
+            int next = 0;
+            for (int i = 0; i < current.capacity(); i++) {
+                long key = current.keyAt(i);
+                if (key != EMPTY) {
+                    entries[next++] = key;
+                    entries[next++] = current.valueAt(i);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(entries.length / 2);
+            for (long value : entries) {
+                out.writeLong(value);
+            }
+        }
+
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Merges a snapshot into the index, keeping the later cutoff per subject.
+    // The entry count must fit in the file, so a truncated or corrupt snapshot
+    // is rejected before anything is allocated or merged.
+    public void restore(Path file) throws IOException {
+        long[] entries;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not a subject invalidation snapshot: " + file);
+            }
+
+            int count = in.readInt();
+            long available = (Files.size(file) - SNAPSHOT_HEADER_BYTES) / SNAPSHOT_ENTRY_BYTES;
+            if (count < 0 || count > available) {
+                throw new IOException("Corrupt subject invalidation snapshot: " + file
+                        + " declares " + count + " entries, holds at most " + available);
+            }
+
+            entries = new long[count * 2];
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = in.readLong();
+            }
+        }
+
+        lock.lock();
+        try {
+            this.ensureCapacity(size + entries.length / 2);
+            for (int i = 0; i < entries.length; i += 2) {
+                if (entries[i] != EMPTY) {
+                    this.put(entries[i], entries[i + 1]);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        modifications.incrementAndGet();
+    }
+
+    private void put(long subject, long epochSecond) {
+        this.ensureCapacity(size + 1);
+        if (table.put(subject, epochSecond)) {
+            size++;
+        }
+    }
+
+    private void ensureCapacity(int entries) {
+        Table current = table;
+        if (entries <= current.capacity() >>> 1) {
+            return;
+        }
+
+        Table grown = new Table(capacityFor(entries));
+        for (int i = 0; i < current.capacity(); i++) {
+            long key = current.keyAt(i);
+            if (key != EMPTY) {
+                grown.put(key, current.valueAt(i));
+            }
+        }
+        table = grown;
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = 16;
+        while (capacity < Math.max(entries, 1) * 2L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static void requireKey(long subject) {
+        if (subject == EMPTY) {
+            throw new IllegalArgumentException("Unsupported subject id: " + subject);
+        }
+    }
+
+    private static final class Table {
+
+        private final AtomicLongArray slots;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.slots = new AtomicLongArray(capacity * 2);
+            this.mask = capacity - 1;
+            for (int i = 0; i < capacity; i++) {
+                slots.set(i * 2, EMPTY);
+            }
+        }
+
+        private int capacity() {
+            return mask + 1;
+        }
+
+        private long keyAt(int index) {
+            return slots.get(index * 2);
+        }
+
+        private long valueAt(int index) {
+            return slots.get(index * 2 + 1);
+        }
+
+        private long get(long key) {
+            int index = indexFor(key);
+            while (true) {
+                long current = slots.get(index * 2);
+                if (current == key) {
+                    return slots.get(index * 2 + 1);
+                }
+                if (current == EMPTY) {
+                    return EMPTY;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        // Only ever raises the stored cutoff. Returns true when a new key was
+        // added. The value is written before the key so that a reader which
+        // finds the key also sees its value.
+        private boolean put(long key, long value) {
+            int index = indexFor(key);
+            while (true) {
+                long current = slots.get(index * 2);
+                if (current == key) {
+                    if (value > slots.get(index * 2 + 1)) {
+                        slots.set(index * 2 + 1, value);
+                    }
+                    return false;
+                }
+                if (current == EMPTY) {
+                    slots.set(index * 2 + 1, value);
+                    slots.set(index * 2, key);
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        private int indexFor(long key) {
+            long hash = key * 0x9e3779b97f4a7c15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.wsc.auth.lib.revocation;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+public class SubjectInvalidationSnapshotter implements Closeable {
+
+    private static final Log logger = LogFactory.getLog(SubjectInvalidationSnapshotter.class);
+
+    private final SubjectInvalidationIndex index;
+    private final Path file;
+    private final long retentionSeconds;
+
+    private ScheduledExecutorService scheduler;
+    private long savedModifications = -1;
+
+    public SubjectInvalidationSnapshotter(SubjectInvalidationIndex index, Path file, long retentionSeconds) {
+        this.index = index;
+        this.file = file.toAbsolutePath();
+        this.retentionSeconds = retentionSeconds;
+    }
+
+    public void restore() throws IOException {
+        if (Files.exists(file)) {
+            index.restore(file);
+            savedModifications = index.modificationCount();
+        }
+    }
+
+    public void start(long intervalSeconds) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> Thread.ofPlatform()
+                .daemon()
+                .name("wsc-auth-session-snapshot")
+                .unstarted(runnable));
+        scheduler.scheduleWithFixedDelay(this::saveQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void save() throws IOException {
+        index.purgeOlderThan(System.currentTimeMillis() / 1000 - retentionSeconds);
+
+        long modifications = index.modificationCount();
+        if (modifications == savedModifications) {
+            return;
+        }
+
+        Files.createDirectories(file.getParent());
+        index.writeSnapshot(file);
+        savedModifications = modifications;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        this.save();
+    }
+
+    private void saveQuietly() {
+        try {
+            this.save();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Writing the session invalidation snapshot to " + file + " failed", e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.wsc.auth.lib.revocation;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Denylist of token ids. A Bloom filter answers the common "not revoked" case
+// without locking or allocating; only a "maybe" consults the exact map, which
+// also holds the expiry used to drop entries once the token could no longer
+// be accepted anyway.
+public class TokenRevocationList {
+
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final double falsePositiveRate;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile BloomFilter filter;
+    private long capacity;
+    private long nextPurgeAt;
+
+    public TokenRevocationList(long expectedRevocations, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        this.capacity = Math.max(1, expectedRevocations);
+        this.filter = new BloomFilter(capacity, falsePositiveRate);
+        this.nextPurgeAt = System.currentTimeMillis() + PURGE_INTERVAL_MILLIS;
+    }
+
+    public void revoke(String tokenId, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (expiresAt <= now) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            revoked.put(tokenId, expiresAt);
+            filter.add(tokenId);
+
+            if (now >= nextPurgeAt) {
+                purge(now);
+            } else if (revoked.size() > capacity) {
+                rebuild(capacity * 2);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public void purgeExpired() {
+        lock.lock();
+        try {
+            purge(System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    // Bloom filters cannot forget, so dropping expired ids means building a
+    // new filter from what is left and publishing it in one write.
+    private void purge(long now) {
+        nextPurgeAt = now + PURGE_INTERVAL_MILLIS;
+
+        if (revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+            rebuild(Math.max(capacity, revoked.size()));
+        }
+    }
+
+    private void rebuild(long newCapacity) {
+        BloomFilter rebuilt = new BloomFilter(newCapacity, falsePositiveRate);
+        for (String tokenId : revoked.keySet()) {
+            rebuilt.add(tokenId);
+        }
+        capacity = newCapacity;
+        filter = rebuilt;
+    }
+}
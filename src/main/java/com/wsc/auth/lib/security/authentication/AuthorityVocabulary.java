@@ -0,0 +1,97 @@
+package com.wsc.auth.lib.security.authentication;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Fixed, ordered list of role or scope names. A token carries the names it
+// knows as one long, bit i set for entry i, so checking a name is a bit test
+// and decoding a set is a cache hit keyed by that long. Names outside the
+// vocabulary still travel as a plain list.
+public final class AuthorityVocabulary {
+
+    public static final AuthorityVocabulary EMPTY = new AuthorityVocabulary(List.of());
+
+    private static final int MAX_SIZE = Long.SIZE;
+
+    private final List<String> names;
+    private final Map<String, Integer> indexes;
+    private final ConcurrentHashMap<Long, Set<String>> decoded = new ConcurrentHashMap<>();
+
+    public AuthorityVocabulary(List<String> names) {
+        if (names.size() > MAX_SIZE) {
+            throw new IllegalArgumentException("An authority vocabulary holds at most " + MAX_SIZE + " names");
+        }
+
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            if (indexes.putIfAbsent(names.get(i), i) != null) {
+                throw new IllegalArgumentException("Duplicate authority name: " + names.get(i));
+            }
+        }
+
+        this.names = List.copyOf(names);
+        this.indexes = Map.copyOf(indexes);
+    }
+
+    public boolean isEmpty() {
+        return names.isEmpty();
+    }
+
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index != null ? index : -1;
+    }
+
+    public boolean contains(long bits, String name) {
+        int index = this.indexOf(name);
+        return index >= 0 && (bits & (1L << index)) != 0;
+    }
+
+    public long encode(Collection<String> values) {
+        long bits = 0;
+        for (String value : values) {
+            int index = this.indexOf(value);
+            if (index >= 0) {
+                bits |= 1L << index;
+            }
+        }
+        return bits;
+    }
+
+    public List<String> unknown(Collection<String> values) {
+        List<String> unknown = null;
+        for (String value : values) {
+            if (this.indexOf(value) < 0) {
+                if (unknown == null) {
+                    unknown = new ArrayList<>();
+                }
+                unknown.add(value);
+            }
+        }
+        return unknown != null ? unknown : List.of();
+    }
+
+    // Returned sets are shared between tokens with the same bits.
+    public Set<String> decode(long bits) {
+        if (bits == 0) {
+            return Set.of();
+        }
+        return decoded.computeIfAbsent(bits, this::toSet);
+    }
+
+    private Set<String> toSet(long bits) {
+        Set<String> values = new LinkedHashSet<>();
+        for (int i = 0; i < names.size(); i++) {
+            if ((bits & (1L << i)) != 0) {
+                values.add(names.get(i));
+            }
+        }
+        return Set.copyOf(values);
+    }
+}
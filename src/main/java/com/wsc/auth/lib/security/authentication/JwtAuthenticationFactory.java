@@ -0,0 +1,79 @@
+package com.wsc.auth.lib.security.authentication;
+
+import com.wsc.auth.lib.model.UserInfo;
+import com.wsc.auth.lib.model.TokenValidation;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Set;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class JwtAuthenticationFactory {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+    private static final String SCOPE_PREFIX = "SCOPE_";
+
+    private final ConcurrentHashMap<String, List<GrantedAuthority>> authoritiesByRole = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<AuthorityKey, List<GrantedAuthority>> authoritiesBySets = new ConcurrentHashMap<>();
+
+    public Authentication create(TokenValidation validation) {
+        return this.create(validation, false);
+    }
+
+    // A lazy authentication builds its authorities the first time they are
+    // read, so its principal is only decoded when something needs it.
+    //
+    // Every request gets its own Authentication, since callers may set details
+    // or mark it untrusted. The authority lists it holds are interned below.
+    public Authentication create(TokenValidation validation, boolean lazy) {
+        UserInfo userInfo = validation.userInfo();
+        if (lazy) {
+            return new LazyJwtAuthenticationToken(userInfo, this::authoritiesOf);
+        }
+        return new JwtAuthenticationToken(userInfo, this.authoritiesOf(userInfo));
+    }
+
+    public List<GrantedAuthority> authoritiesFor(String role) {
+        if (role == null) {
+            return List.of();
+        }
+        return authoritiesByRole.computeIfAbsent(role,
+                key -> List.of(new SimpleGrantedAuthority(ROLE_PREFIX + key)));
+    }
+
+    // Decoded role and scope sets are shared per bit pattern, so the key
+    // usually hashes instances whose element hashes are already cached.
+    public List<GrantedAuthority> authoritiesOf(UserInfo userInfo) {
+        String role = userInfo.getRole();
+        Set<String> roles = userInfo.getRoles();
+        Set<String> scopes = userInfo.getScopes();
+
+        boolean primaryRoleOnly = roles.isEmpty() || (roles.size() == 1 && roles.contains(role));
+        if (primaryRoleOnly && scopes.isEmpty()) {
+            return this.authoritiesFor(role);
+        }
+        return authoritiesBySets.computeIfAbsent(new AuthorityKey(role, roles, scopes), this::toAuthorities);
+    }
+
+    private List<GrantedAuthority> toAuthorities(AuthorityKey key) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        if (key.role() != null) {
+            authorities.add(new SimpleGrantedAuthority(ROLE_PREFIX + key.role()));
+        }
+        for (String role : key.roles()) {
+            if (!role.equals(key.role())) {
+                authorities.add(new SimpleGrantedAuthority(ROLE_PREFIX + role));
+            }
+        }
+        for (String scope : key.scopes()) {
+            authorities.add(new SimpleGrantedAuthority(SCOPE_PREFIX + scope));
+        }
+        return List.copyOf(authorities);
+    }
+
+    private record AuthorityKey(String role, Set<String> roles, Set<String> scopes) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.wsc.auth.lib.security.authentication;
+
+import com.wsc.auth.lib.model.UserInfo;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+
+import java.util.Collection;
+
+public class JwtAuthenticationToken extends AbstractAuthenticationToken {
+
+    private final UserInfo principal;
+
+    public JwtAuthenticationToken(UserInfo principal, Collection<? extends GrantedAuthority> authorities) {
+        super(authorities);
+        this.principal = principal;
+        super.setAuthenticated(true);
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public UserInfo getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public String getName() {
+        return String.valueOf(principal.getId());
+    }
+
+    // Like UsernamePasswordAuthenticationToken: a token can be marked as
+    // untrusted, but only the filter that verified the JWT may trust it.
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (authenticated) {
+            throw new IllegalArgumentException("Cannot set this token to trusted, it is only trusted once its JWT is verified");
+        }
+        super.setAuthenticated(false);
+    }
+}
@@ -0,0 +1,32 @@
+package com.wsc.auth.lib.security.authentication;
+
+import com.wsc.auth.lib.model.UserInfo;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Collection;
+import java.util.function.Function;
+
+// Authorities are built from the principal on first use, so requests that
+// only need to be authenticated never decode roles or scopes.
+final class LazyJwtAuthenticationToken extends JwtAuthenticationToken {
+
+    private final Function<UserInfo, List<GrantedAuthority>> authorities;
+
+    private volatile List<GrantedAuthority> resolved;
+
+    LazyJwtAuthenticationToken(UserInfo principal, Function<UserInfo, List<GrantedAuthority>> authorities) {
+        super(principal, List.of());
+        this.authorities = authorities;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        List<GrantedAuthority> value = resolved;
+        if (value == null) {
+            value = authorities.apply(this.getPrincipal());
+            resolved = value;
+        }
+        return value;
+    }
+}
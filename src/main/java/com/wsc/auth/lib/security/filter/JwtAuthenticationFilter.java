@@ -1,26 +1,64 @@
 package com.wsc.auth.lib.security.filter;
 
 import jakarta.servlet.FilterChain;
-import com.wsc.auth.lib.model.UserInfo;
+import jakarta.servlet.http.Cookie;
+import com.wsc.auth.lib.enums.TokenType;
 import jakarta.servlet.ServletException;
 import org.jspecify.annotations.NonNull;
 import com.wsc.auth.lib.service.JwtService;
+import com.wsc.auth.lib.metrics.AuthMetrics;
+import com.wsc.auth.lib.model.TokenValidation;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import com.wsc.auth.lib.security.token.TokenSlice;
+import com.wsc.auth.lib.enums.AuthenticationOutcome;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import com.wsc.auth.lib.security.authentication.JwtAuthenticationFactory;
 
-import java.util.List;
 import java.io.IOException;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final JwtAuthenticationFactory authenticationFactory;
+
+    private AuthMetrics metrics = AuthMetrics.NOOP;
+    private SkipPathMatcher skipPaths;
+    private boolean lazyPrincipal;
+    private TokenResolver tokenResolver = TokenResolver.BEARER;
 
     public JwtAuthenticationFilter(JwtService jwtService) {
+        this(jwtService, new JwtAuthenticationFactory());
+    }
+
+    public JwtAuthenticationFilter(JwtService jwtService, JwtAuthenticationFactory authenticationFactory) {
         this.jwtService = jwtService;
+        this.authenticationFactory = authenticationFactory;
+    }
+
+    public void setMetrics(AuthMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setSkipPaths(SkipPathMatcher skipPaths) {
+        this.skipPaths = skipPaths;
+    }
+
+    public void setLazyPrincipal(boolean lazyPrincipal) {
+        this.lazyPrincipal = lazyPrincipal;
+    }
+
+    public void setTokenResolver(TokenResolver tokenResolver) {
+        this.tokenResolver = tokenResolver;
+    }
+
+    // Health checks and static assets skip header parsing and the token
+    // pipeline entirely.
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return skipPaths != null && skipPaths.shouldSkip(request.getRequestURI(), request.getContextPath().length());
     }
 
     @Override
@@ -30,52 +68,51 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
 
-//        if (this.shouldFilterPermitted(request)) {
-//            filterChain.doFilter(request, response);
-//            return;
-//        }
+        long start = metrics.start();
 
-        String token = extractToken(request);
+        TokenSlice token = extractToken(request);
         if (token == null) {
+            metrics.recordFilterRequest(start, AuthenticationOutcome.NO_TOKEN);
             filterChain.doFilter(request, response);
             return;
         }
 
-        if (jwtService.isInvalidTokenValid(token)) {
-            filterChain.doFilter(request, response);
-            return;
-        }
+        TokenValidation validation = lazyPrincipal
+                ? jwtService.validateTokenLazily(token, TokenType.ACCESS)
+                : jwtService.validateToken(token, TokenType.ACCESS);
 
-        if (!jwtService.isAccessToken(token)) {
+        if (!validation.isAccessToken()) {
+            metrics.recordFilterRequest(start, AuthenticationOutcome.INVALID_TOKEN);
             filterChain.doFilter(request, response);
             return;
         }
 
-        UserInfo userInfo = jwtService.extractUserInfo(token);
-
-        UsernamePasswordAuthenticationToken authentication =
-                new UsernamePasswordAuthenticationToken(
-                        userInfo,
-                        null,
-                        List.of(new SimpleGrantedAuthority("ROLE_" + userInfo.getRole()))
-                );
+        Authentication authentication = authenticationFactory.create(validation, lazyPrincipal);
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
+        metrics.recordFilterRequest(start, AuthenticationOutcome.AUTHENTICATED);
 
         filterChain.doFilter(request, response);
     }
 
-//    private boolean shouldFilterPermitted(HttpServletRequest request) {
-//        String path = request.getServletPath();
-//
-//        return path.startsWith("/api/v1/auth");
-//    }
+    private TokenSlice extractToken(HttpServletRequest request) {
+        return tokenResolver.resolve(
+                request.getHeader("Authorization"),
+                name -> cookieValue(request, name),
+                request.getQueryString()
+        );
+    }
 
-    private String extractToken(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+    private static String cookieValue(HttpServletRequest request, String name) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
             return null;
         }
-        return authHeader.substring(7);
+        for (Cookie cookie : cookies) {
+            if (name.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
     }
 }
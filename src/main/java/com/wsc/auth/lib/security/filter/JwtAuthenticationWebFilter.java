@@ -0,0 +1,36 @@
+package com.wsc.auth.lib.security.filter;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private final JwtServerAuthenticationConverter authenticationConverter;
+
+    private SkipPathMatcher skipPaths;
+
+    public JwtAuthenticationWebFilter(JwtServerAuthenticationConverter authenticationConverter) {
+        this.authenticationConverter = authenticationConverter;
+    }
+
+    public void setSkipPaths(SkipPathMatcher skipPaths) {
+        this.skipPaths = skipPaths;
+    }
+
+    // Requests without a valid token continue unauthenticated, as with the
+    // servlet filter; access decisions are left to the security chain.
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (skipPaths != null && skipPaths.shouldSkip(exchange.getRequest().getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+        return authenticationConverter.convert(exchange)
+                .map(ReactiveSecurityContextHolder::withAuthentication)
+                .defaultIfEmpty(Context.empty())
+                .flatMap(context -> chain.filter(exchange).contextWrite(context));
+    }
+}
@@ -0,0 +1,99 @@
+package com.wsc.auth.lib.security.filter;
+
+import reactor.core.publisher.Mono;
+import com.wsc.auth.lib.enums.TokenType;
+import reactor.core.scheduler.Scheduler;
+import com.wsc.auth.lib.service.JwtService;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import com.wsc.auth.lib.metrics.AuthMetrics;
+import com.wsc.auth.lib.model.TokenValidation;
+import com.wsc.auth.lib.security.token.TokenSlice;
+import com.wsc.auth.lib.enums.AuthenticationOutcome;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.security.core.Authentication;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import com.wsc.auth.lib.security.authentication.JwtAuthenticationFactory;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+
+public class JwtServerAuthenticationConverter implements ServerAuthenticationConverter {
+
+    private final JwtService jwtService;
+    private final JwtAuthenticationFactory authenticationFactory;
+    private final Scheduler offloadScheduler;
+
+    private AuthMetrics metrics = AuthMetrics.NOOP;
+    private boolean lazyPrincipal;
+    private TokenResolver tokenResolver = TokenResolver.BEARER;
+
+    public JwtServerAuthenticationConverter(JwtService jwtService) {
+        this(jwtService, new JwtAuthenticationFactory(), null);
+    }
+
+    // With a null scheduler validation runs on the calling (event loop) thread,
+    // which suits the built-in in-memory checks. Pass a scheduler when the
+    // JwtService consults a blocking store.
+    public JwtServerAuthenticationConverter(JwtService jwtService, JwtAuthenticationFactory authenticationFactory, Scheduler offloadScheduler) {
+        this.jwtService = jwtService;
+        this.authenticationFactory = authenticationFactory;
+        this.offloadScheduler = offloadScheduler;
+    }
+
+    public void setMetrics(AuthMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setLazyPrincipal(boolean lazyPrincipal) {
+        this.lazyPrincipal = lazyPrincipal;
+    }
+
+    public void setTokenResolver(TokenResolver tokenResolver) {
+        this.tokenResolver = tokenResolver;
+    }
+
+    @Override
+    public Mono<Authentication> convert(ServerWebExchange exchange) {
+        long start = metrics.start();
+
+        TokenSlice token = this.extractToken(exchange);
+        if (token == null) {
+            metrics.recordFilterRequest(start, AuthenticationOutcome.NO_TOKEN);
+            return Mono.empty();
+        }
+
+        if (offloadScheduler == null) {
+            return Mono.justOrEmpty(this.authenticate(token, start));
+        }
+        return Mono.fromCallable(() -> this.authenticate(token, start))
+                .subscribeOn(offloadScheduler);
+    }
+
+    private Authentication authenticate(TokenSlice token, long start) {
+        TokenValidation validation = lazyPrincipal
+                ? jwtService.validateTokenLazily(token, TokenType.ACCESS)
+                : jwtService.validateToken(token, TokenType.ACCESS);
+
+        if (!validation.isAccessToken()) {
+            metrics.recordFilterRequest(start, AuthenticationOutcome.INVALID_TOKEN);
+            return null;
+        }
+
+        Authentication authentication = authenticationFactory.create(validation, lazyPrincipal);
+        metrics.recordFilterRequest(start, AuthenticationOutcome.AUTHENTICATED);
+        return authentication;
+    }
+
+    private TokenSlice extractToken(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        return tokenResolver.resolve(
+                request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION),
+                name -> cookieValue(request, name),
+                request.getURI().getRawQuery()
+        );
+    }
+
+    private static String cookieValue(ServerHttpRequest request, String name) {
+        HttpCookie cookie = request.getCookies().getFirst(name);
+        return cookie != null ? cookie.getValue() : null;
+    }
+}
@@ -0,0 +1,130 @@
+package com.wsc.auth.lib.security.filter;
+
+import java.util.List;
+import java.util.Arrays;
+
+// Decides which request paths the authentication filters skip. Patterns are
+// compiled once into a character trie, so a lookup is a single pass over the
+// path with no allocation. Two forms are supported: an exact path
+// ("/favicon.ico") and a subtree ("/actuator/**", which also matches
+// "/actuator" itself).
+//
+// The most specific matching pattern wins, so "/api/public/**" can be excluded
+// while "/api/public/me" is still included. Paths no pattern matches are
+// filtered, unless include patterns are configured; then only those are.
+//
+// Skipping a path only means no authentication is set up for it; access rules
+// in the security chain still apply.
+public final class SkipPathMatcher {
+
+    private static final byte NONE = 0;
+    private static final byte INCLUDE = 1;
+    private static final byte EXCLUDE = 2;
+
+    private final Node root = new Node();
+    private final boolean skipByDefault;
+
+    public SkipPathMatcher(List<String> include, List<String> exclude) {
+        for (String pattern : include) {
+            this.add(pattern, INCLUDE);
+        }
+        for (String pattern : exclude) {
+            this.add(pattern, EXCLUDE);
+        }
+        this.skipByDefault = !include.isEmpty();
+    }
+
+    public boolean isEmpty() {
+        return !skipByDefault && root.childCount == 0 && root.subtree == NONE;
+    }
+
+    public boolean shouldSkip(String path) {
+        return this.shouldSkip(path, 0);
+    }
+
+    // Matches the part of path from offset on, so a context path can be
+    // stripped without a substring.
+    public boolean shouldSkip(String path, int offset) {
+        byte decision = NONE;
+        Node node = root;
+
+        for (int i = offset; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '?' || c == ';') {
+                break;
+            }
+            if (c == '/' && node.subtree != NONE) {
+                decision = node.subtree;
+            }
+            node = node.child(c);
+            if (node == null) {
+                return this.skip(decision);
+            }
+        }
+
+        if (node.exact != NONE) {
+            decision = node.exact;
+        } else if (node.subtree != NONE) {
+            decision = node.subtree;
+        }
+        return this.skip(decision);
+    }
+
+    private boolean skip(byte decision) {
+        return decision == NONE ? skipByDefault : decision == EXCLUDE;
+    }
+
+    private void add(String pattern, byte decision) {
+        if (pattern == null || !pattern.startsWith("/")) {
+            throw new IllegalArgumentException("Path pattern must start with '/': " + pattern);
+        }
+
+        boolean subtree = pattern.endsWith("/**");
+        String path = subtree ? pattern.substring(0, pattern.length() - 3) : pattern;
+        if (path.contains("*")) {
+            throw new IllegalArgumentException("Only exact paths and '/**' suffixes are supported: " + pattern);
+        }
+
+        Node node = root;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.childOrCreate(path.charAt(i));
+        }
+
+        if (subtree) {
+            node.subtree = decision;
+        } else {
+            node.exact = decision;
+        }
+    }
+
+    private static final class Node {
+
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        private byte exact = NONE;
+        private byte subtree = NONE;
+
+        private Node child(char key) {
+            for (int i = 0; i < childCount; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node childOrCreate(char key) {
+            Node child = this.child(key);
+            if (child != null) {
+                return child;
+            }
+            keys = Arrays.copyOf(keys, childCount + 1);
+            children = Arrays.copyOf(children, childCount + 1);
+            keys[childCount] = key;
+            children[childCount] = child = new Node();
+            childCount++;
+            return child;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.wsc.auth.lib.security.filter;
+
+import com.wsc.auth.lib.security.token.TokenSlice;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Finds the access token of a request. The Authorization header is checked
+// first, then the cookie and then the query parameter when those are
+// configured. Schemes match case-insensitively, and the token is returned as
+// a slice of the header or query string rather than a copy.
+public final class TokenResolver {
+
+    public static final TokenResolver BEARER = new TokenResolver(List.of("Bearer"), null, null);
+
+    private final String[] schemes;
+    private final String cookieName;
+    private final String queryParameter;
+
+    public TokenResolver(List<String> schemes, String cookieName, String queryParameter) {
+        for (String scheme : schemes) {
+            if (scheme == null || scheme.isBlank() || scheme.indexOf(' ') >= 0) {
+                throw new IllegalArgumentException("Invalid authorization scheme: '" + scheme + "'");
+            }
+        }
+        this.schemes = schemes.toArray(String[]::new);
+        this.cookieName = blankToNull(cookieName);
+        this.queryParameter = blankToNull(queryParameter);
+    }
+
+    // cookies is only called when a cookie name is configured.
+    public TokenSlice resolve(String authorization, Function<String, String> cookies, String rawQuery) {
+        TokenSlice token = this.fromAuthorization(authorization);
+        if (token == null && cookieName != null) {
+            String value = cookies.apply(cookieName);
+            token = value == null || value.isEmpty() ? null : TokenSlice.of(value);
+        }
+        if (token == null && queryParameter != null) {
+            token = this.fromQuery(rawQuery);
+        }
+        return token;
+    }
+
+    public TokenSlice fromAuthorization(String header) {
+        if (header == null) {
+            return null;
+        }
+
+        for (String scheme : schemes) {
+            int length = scheme.length();
+            if (header.length() <= length
+                    || header.charAt(length) != ' '
+                    || !header.regionMatches(true, 0, scheme, 0, length)) {
+                continue;
+            }
+
+            int start = length + 1;
+            int end = header.length();
+            while (start < end && header.charAt(start) == ' ') {
+                start++;
+            }
+            while (end > start && header.charAt(end - 1) == ' ') {
+                end--;
+            }
+            return start < end ? TokenSlice.of(header, start, end) : null;
+        }
+        return null;
+    }
+
+    // Tokens are base64url and dots, which need no percent-encoding, so the
+    // raw value is sliced as is.
+    public TokenSlice fromQuery(String rawQuery) {
+        if (rawQuery == null || queryParameter == null) {
+            return null;
+        }
+
+        int length = queryParameter.length();
+        int position = 0;
+        while (position < rawQuery.length()) {
+            int next = rawQuery.indexOf('&', position);
+            int end = next < 0 ? rawQuery.length() : next;
+
+            if (end - position > length + 1
+                    && rawQuery.charAt(position + length) == '='
+                    && rawQuery.startsWith(queryParameter, position)) {
+                return TokenSlice.of(rawQuery, position + length + 1, end);
+            }
+            position = end + 1;
+        }
+        return null;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
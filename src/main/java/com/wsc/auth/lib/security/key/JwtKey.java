@@ -0,0 +1,17 @@
+package com.wsc.auth.lib.security.key;
+
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+
+import java.security.Key;
+
+public record JwtKey(
+        String kid,
+        Key signingKey,
+        Key verificationKey,
+        SecureDigestAlgorithm<Key, ?> algorithm
+) {
+
+    public boolean canSign() {
+        return signingKey != null;
+    }
+}
@@ -0,0 +1,107 @@
+package com.wsc.auth.lib.security.key;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import com.wsc.auth.lib.enums.JwtMode;
+import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.enums.SigningAlgorithm;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+
+import java.util.Base64;
+import java.security.Key;
+import java.nio.file.Path;
+import javax.crypto.SecretKey;
+import java.security.PublicKey;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.nio.charset.StandardCharsets;
+import java.security.spec.X509EncodedKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.spec.PKCS8EncodedKeySpec;
+
+public final class JwtKeys {
+
+    private JwtKeys() {
+    }
+
+    public static KeyRing keyRing(JwtProperties properties) {
+        String location = properties.getKeys().getLocation();
+
+        if (location != null) {
+            return KeyRingLoader.load(Path.of(location), properties);
+        }
+        return KeyRing.of(fromProperties(properties));
+    }
+
+    public static JwtKey fromProperties(JwtProperties properties) {
+        SigningAlgorithm algorithm = properties.getAlgorithm();
+        String kid = properties.getKeys().getKid();
+
+        if (algorithm == null || algorithm.isHmac()) {
+            if (properties.getSecret() == null) {
+                throw new IllegalStateException("wsc.auth.jwt.secret is required for HMAC signing");
+            }
+            return hmac(kid, properties.getSecret(), algorithm, properties.getMode() == JwtMode.ISSUER);
+        }
+
+        if (properties.getPublicKey() == null) {
+            throw new IllegalStateException("wsc.auth.jwt.public-key is required for " + algorithm);
+        }
+
+        if (properties.getMode() == JwtMode.ISSUER && properties.getPrivateKey() == null) {
+            throw new IllegalStateException("wsc.auth.jwt.private-key is required to issue tokens; "
+                    + "use wsc.auth.jwt.mode=verify-only on resource servers");
+        }
+
+        String privateKey = properties.getMode() == JwtMode.ISSUER ? properties.getPrivateKey() : null;
+        return asymmetric(kid, properties.getPublicKey(), privateKey, algorithm);
+    }
+
+    public static JwtKey hmac(String kid, String secret, SigningAlgorithm algorithm) {
+        return hmac(kid, secret, algorithm, true);
+    }
+
+    // The secret both signs and verifies, so a verify-only key holds it only
+    // as the verification key; otherwise the resource server could still issue.
+    public static JwtKey hmac(String kid, String secret, SigningAlgorithm algorithm, boolean signing) {
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        return new JwtKey(kid, signing ? key : null, key, algorithm == null ? null : resolve(algorithm));
+    }
+
+    public static JwtKey asymmetric(String kid, String publicKeyPem, String privateKeyPem, SigningAlgorithm algorithm) {
+        PublicKey publicKey = readPublicKey(publicKeyPem, algorithm);
+        PrivateKey privateKey = privateKeyPem == null ? null : readPrivateKey(privateKeyPem, algorithm);
+        return new JwtKey(kid, privateKey, publicKey, resolve(algorithm));
+    }
+
+    public static PublicKey readPublicKey(String pem, SigningAlgorithm algorithm) {
+        try {
+            return KeyFactory.getInstance(algorithm.getKeyFactoryAlgorithm())
+                    .generatePublic(new X509EncodedKeySpec(decodePem(pem)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid " + algorithm + " public key", e);
+        }
+    }
+
+    public static PrivateKey readPrivateKey(String pem, SigningAlgorithm algorithm) {
+        try {
+            return KeyFactory.getInstance(algorithm.getKeyFactoryAlgorithm())
+                    .generatePrivate(new PKCS8EncodedKeySpec(decodePem(pem)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid " + algorithm + " private key", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SecureDigestAlgorithm<Key, ?> resolve(SigningAlgorithm algorithm) {
+        return (SecureDigestAlgorithm<Key, ?>) Jwts.SIG.get().forKey(algorithm.name());
+    }
+
+    private static byte[] decodePem(String pem) {
+        String base64 = pem
+                .replaceAll("-----BEGIN [A-Z ]+-----", "")
+                .replaceAll("-----END [A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+}
@@ -0,0 +1,48 @@
+package com.wsc.auth.lib.security.key;
+
+import java.util.Map;
+import java.util.HashMap;
+
+public final class KeyRing {
+
+    private final JwtKey active;
+    private final Map<String, JwtKey> keysById;
+
+    private KeyRing(JwtKey active, Map<String, JwtKey> keysById) {
+        this.active = active;
+        this.keysById = keysById;
+    }
+
+    public static KeyRing of(JwtKey key) {
+        return key.kid() == null
+                ? new KeyRing(key, Map.of())
+                : new KeyRing(key, Map.of(key.kid(), key));
+    }
+
+    public static KeyRing of(String activeKid, Iterable<JwtKey> keys) {
+        Map<String, JwtKey> keysById = new HashMap<>();
+        for (JwtKey key : keys) {
+            keysById.put(key.kid(), key);
+        }
+
+        JwtKey active = keysById.get(activeKid);
+        if (active == null) {
+            throw new IllegalStateException("Active key '" + activeKid + "' is not present in the key ring");
+        }
+        return new KeyRing(active, Map.copyOf(keysById));
+    }
+
+    public JwtKey active() {
+        return active;
+    }
+
+    // Tokens issued before key ids were introduced carry no kid and are
+    // checked against the active key.
+    public JwtKey find(String kid) {
+        return kid == null ? active : keysById.get(kid);
+    }
+
+    public int size() {
+        return keysById.isEmpty() ? 1 : keysById.size();
+    }
+}
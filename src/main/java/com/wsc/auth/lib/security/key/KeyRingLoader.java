@@ -0,0 +1,140 @@
+package com.wsc.auth.lib.security.key;
+
+import com.wsc.auth.lib.enums.JwtMode;
+import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.enums.SigningAlgorithm;
+
+import java.util.Map;
+import java.util.List;
+import java.util.TreeMap;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.nio.file.Files;
+import java.io.IOException;
+import java.util.stream.Stream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+// Reads a key ring from a single key file or a directory of key files named
+// <kid>.key (HMAC secret), <kid>.pub (X.509 public key) and <kid>.pem (PKCS#8
+// private key). The active kid comes from an "active" file in the directory,
+// then wsc.auth.jwt.keys.active-kid, then the greatest kid able to sign.
+public final class KeyRingLoader {
+
+    public static final String ACTIVE_FILE = "active";
+
+    private static final String SECRET_EXTENSION = "key";
+    private static final String PUBLIC_EXTENSION = "pub";
+    private static final String PRIVATE_EXTENSION = "pem";
+
+    private KeyRingLoader() {
+    }
+
+    public static KeyRing load(Path location, JwtProperties properties) {
+        try {
+            return read(location, properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read keys from " + location, e);
+        }
+    }
+
+    public static boolean isKeyFile(Path file) {
+        String name = file.getFileName().toString();
+        if (ACTIVE_FILE.equals(name)) {
+            return true;
+        }
+        String extension = extension(name);
+        return SECRET_EXTENSION.equals(extension)
+                || PUBLIC_EXTENSION.equals(extension)
+                || PRIVATE_EXTENSION.equals(extension);
+    }
+
+    private static KeyRing read(Path location, JwtProperties properties) throws IOException {
+        SigningAlgorithm algorithm = properties.getAlgorithm();
+        boolean hmac = algorithm == null || algorithm.isHmac();
+        boolean issuer = properties.getMode() == JwtMode.ISSUER;
+
+        Map<String, Map<String, String>> filesByKid = new TreeMap<>();
+        String activeKid = properties.getKeys().getActiveKid();
+
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(location)) {
+            try (Stream<Path> entries = Files.list(location)) {
+                entries.filter(Files::isRegularFile).forEach(files::add);
+            }
+        } else {
+            files.add(location);
+        }
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+
+            if (ACTIVE_FILE.equals(name)) {
+                activeKid = Files.readString(file, StandardCharsets.UTF_8).trim();
+                continue;
+            }
+            if (name.startsWith(".") || !isKeyFile(file)) {
+                continue;
+            }
+
+            String kid = name.substring(0, name.lastIndexOf('.'));
+            filesByKid.computeIfAbsent(kid, k -> new TreeMap<>())
+                    .put(extension(name), Files.readString(file, StandardCharsets.UTF_8));
+        }
+
+        List<JwtKey> keys = new ArrayList<>();
+        for (Map.Entry<String, Map<String, String>> entry : filesByKid.entrySet()) {
+            String kid = entry.getKey();
+            Map<String, String> contents = entry.getValue();
+
+            if (hmac) {
+                String secret = contents.get(SECRET_EXTENSION);
+                if (secret != null) {
+                    keys.add(JwtKeys.hmac(kid, secret.trim(), algorithm, issuer));
+                }
+                continue;
+            }
+
+            String publicKey = contents.get(PUBLIC_EXTENSION);
+            if (publicKey != null) {
+                String privateKey = issuer ? contents.get(PRIVATE_EXTENSION) : null;
+                keys.add(JwtKeys.asymmetric(kid, publicKey, privateKey, algorithm));
+            }
+        }
+
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("No keys found in " + location);
+        }
+
+        if (activeKid == null) {
+            activeKid = defaultActiveKid(keys, issuer);
+        }
+
+        KeyRing ring = KeyRing.of(activeKid, keys);
+        if (issuer && !ring.active().canSign()) {
+            throw new IllegalStateException("Active key '" + activeKid + "' has no signing key");
+        }
+        return ring;
+    }
+
+    private static String defaultActiveKid(List<JwtKey> keys, boolean issuer) {
+        String activeKid = null;
+        for (JwtKey key : keys) {
+            if (issuer && !key.canSign()) {
+                continue;
+            }
+            if (activeKid == null || key.kid().compareTo(activeKid) > 0) {
+                activeKid = key.kid();
+            }
+        }
+        if (activeKid == null) {
+            throw new IllegalStateException("No key able to sign tokens was found");
+        }
+        return activeKid;
+    }
+
+    private static String extension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1);
+    }
+}
@@ -0,0 +1,109 @@
+package com.wsc.auth.lib.security.key;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchService;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.nio.file.ClosedWatchServiceException;
+
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+public class KeyRingWatcher implements Closeable {
+
+    private static final Log logger = LogFactory.getLog(KeyRingWatcher.class);
+
+    // Rotations usually touch several files (new key, then "active"); wait a
+    // little so they are picked up as a single reload.
+    private static final long SETTLE_MILLIS = 200;
+
+    private final Path location;
+    private final Path directory;
+    private final Supplier<KeyRing> loader;
+    private final Consumer<KeyRing> listener;
+
+    private WatchService watchService;
+
+    public KeyRingWatcher(Path location, Supplier<KeyRing> loader, Consumer<KeyRing> listener) {
+        this.location = location.toAbsolutePath();
+        this.directory = Files.isDirectory(this.location) ? this.location : this.location.getParent();
+        this.loader = loader;
+        this.listener = listener;
+    }
+
+    public void start() throws IOException {
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+
+        Thread.ofPlatform()
+                .daemon()
+                .name("wsc-auth-key-watcher")
+                .start(this::watch);
+    }
+
+    public void reload() {
+        try {
+            listener.accept(loader.get());
+        } catch (RuntimeException e) {
+            logger.warn("Keeping the current key ring, reloading " + location + " failed", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Thread.sleep(SETTLE_MILLIS);
+
+                boolean changed = this.drain(key);
+                while ((key = watchService.poll()) != null) {
+                    changed |= this.drain(key);
+                }
+
+                if (changed) {
+                    this.reload();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // closed on shutdown
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                changed = true;
+                continue;
+            }
+
+            Path file = directory.resolve((Path) event.context());
+            changed |= directory.equals(location)
+                    ? KeyRingLoader.isKeyFile(file)
+                    : file.equals(location);
+        }
+
+        key.reset();
+        return changed;
+    }
+}
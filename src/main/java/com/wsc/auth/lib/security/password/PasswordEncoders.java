@@ -0,0 +1,179 @@
+package com.wsc.auth.lib.security.password;
+
+import org.apache.commons.logging.Log;
+import org.springframework.util.ClassUtils;
+import org.apache.commons.logging.LogFactory;
+import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.enums.PasswordEncoderType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+import java.util.Map;
+import java.util.HashMap;
+
+public final class PasswordEncoders {
+
+    private static final Log logger = LogFactory.getLog(PasswordEncoders.class);
+
+    private static final String ARGON2_GENERATOR = "org.bouncycastle.crypto.generators.Argon2BytesGenerator";
+
+    private static final String CALIBRATION_PASSWORD = "wsc-auth-calibration-password";
+
+    private static final int MAX_BCRYPT_STRENGTH = 31;
+
+    private PasswordEncoders() {
+    }
+
+    // BCrypt stays a plain BCryptPasswordEncoder so existing hashes keep their
+    // format. The other encoders are wrapped in a DelegatingPasswordEncoder that
+    // still matches unprefixed BCrypt hashes and reports them for upgrade.
+    public static PasswordEncoder create(JwtProperties.Password properties) {
+        return create(properties, Cost.of(properties));
+    }
+
+    public static PasswordEncoder create(JwtProperties.Password properties, Cost cost) {
+        BCryptPasswordEncoder bcrypt = bcrypt(cost.bcryptStrength());
+
+        if (properties.getEncoder() == PasswordEncoderType.BCRYPT) {
+            return bcrypt;
+        }
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2", pbkdf2(properties.getPbkdf2(), cost.pbkdf2Iterations()));
+
+        if (isArgon2Available()) {
+            encoders.put("argon2", argon2(properties.getArgon2(), cost.argon2Iterations()));
+        } else if (properties.getEncoder() == PasswordEncoderType.ARGON2) {
+            throw new IllegalStateException("The argon2 password encoder requires org.bouncycastle:bcprov-jdk18on on the classpath");
+        }
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(idFor(properties.getEncoder()), encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    // Raises the configured cost of the selected encoder until a single hash
+    // takes about targetMillis on this machine. The configured cost is a floor,
+    // and the properties themselves are left as bound.
+    public static Cost calibrate(JwtProperties.Password properties, long targetMillis) {
+        Cost cost = Cost.of(properties);
+        return switch (properties.getEncoder()) {
+            case BCRYPT -> cost.withBcryptStrength(calibrateBcrypt(cost.bcryptStrength(), targetMillis));
+            case PBKDF2 -> cost.withPbkdf2Iterations(calibratePbkdf2(properties.getPbkdf2(), targetMillis));
+            case ARGON2 -> cost.withArgon2Iterations(calibrateArgon2(properties.getArgon2(), targetMillis));
+        };
+    }
+
+    private static int calibrateBcrypt(int strength, long targetMillis) {
+        while (strength < MAX_BCRYPT_STRENGTH && elapsedMillis(bcrypt(strength + 1)) <= targetMillis) {
+            strength++;
+        }
+
+        logger.info("Calibrated bcrypt strength to " + strength + " for a target of " + targetMillis + "ms");
+        return strength;
+    }
+
+    private static int calibratePbkdf2(JwtProperties.Pbkdf2 properties, long targetMillis) {
+        int configured = properties.getIterations();
+        int iterations = scale(configured, elapsedMillis(pbkdf2(properties, configured)), targetMillis);
+
+        logger.info("Calibrated pbkdf2 iterations to " + iterations + " for a target of " + targetMillis + "ms");
+        return iterations;
+    }
+
+    private static int calibrateArgon2(JwtProperties.Argon2 properties, long targetMillis) {
+        if (!isArgon2Available()) {
+            throw new IllegalStateException("The argon2 password encoder requires org.bouncycastle:bcprov-jdk18on on the classpath");
+        }
+
+        int configured = properties.getIterations();
+        int iterations = scale(configured, elapsedMillis(argon2(properties, configured)), targetMillis);
+
+        logger.info("Calibrated argon2 iterations to " + iterations + " for a target of " + targetMillis + "ms");
+        return iterations;
+    }
+
+    // PBKDF2 and Argon2 cost grows linearly with the iteration count.
+    private static int scale(int iterations, double elapsedMillis, long targetMillis) {
+        if (elapsedMillis <= 0) {
+            return iterations;
+        }
+        long scaled = (long) (iterations * (targetMillis / elapsedMillis));
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(iterations, scaled));
+    }
+
+    // Best of two runs, so a cold first call does not skew the result.
+    private static double elapsedMillis(PasswordEncoder encoder) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000.0;
+    }
+
+    private static BCryptPasswordEncoder bcrypt(int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    private static Pbkdf2PasswordEncoder pbkdf2(JwtProperties.Pbkdf2 properties, int iterations) {
+        return new Pbkdf2PasswordEncoder(
+                "",
+                properties.getSaltLength(),
+                iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.valueOf(properties.getAlgorithm())
+        );
+    }
+
+    private static Argon2PasswordEncoder argon2(JwtProperties.Argon2 properties, int iterations) {
+        return new Argon2PasswordEncoder(
+                properties.getSaltLength(),
+                properties.getHashLength(),
+                properties.getParallelism(),
+                properties.getMemory(),
+                iterations
+        );
+    }
+
+    private static boolean isArgon2Available() {
+        return ClassUtils.isPresent(ARGON2_GENERATOR, PasswordEncoders.class.getClassLoader());
+    }
+
+    private static String idFor(PasswordEncoderType type) {
+        return switch (type) {
+            case BCRYPT -> "bcrypt";
+            case ARGON2 -> "argon2";
+            case PBKDF2 -> "pbkdf2";
+        };
+    }
+
+    // Work factors the encoders are built with: the configured values, or
+    // what calibrate measured for this machine.
+    public record Cost(int bcryptStrength, int pbkdf2Iterations, int argon2Iterations) {
+
+        public static Cost of(JwtProperties.Password properties) {
+            return new Cost(
+                    properties.getBcrypt().getStrength(),
+                    properties.getPbkdf2().getIterations(),
+                    properties.getArgon2().getIterations()
+            );
+        }
+
+        public Cost withBcryptStrength(int strength) {
+            return new Cost(strength, pbkdf2Iterations, argon2Iterations);
+        }
+
+        public Cost withPbkdf2Iterations(int iterations) {
+            return new Cost(bcryptStrength, iterations, argon2Iterations);
+        }
+
+        public Cost withArgon2Iterations(int iterations) {
+            return new Cost(bcryptStrength, pbkdf2Iterations, iterations);
+        }
+    }
+}
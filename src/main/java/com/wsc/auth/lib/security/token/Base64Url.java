@@ -0,0 +1,87 @@
+package com.wsc.auth.lib.security.token;
+
+import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+
+// Allocation-free base64url coding (no padding) between offsets of ASCII
+// buffers. Decoding is strict and returns -1 for anything jjwt might read
+// differently so the caller can fall back to it.
+final class Base64Url {
+
+    private static final byte[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private Base64Url() {
+    }
+
+    static int decodedLength(int encodedLength) {
+        return encodedLength * 3 / 4;
+    }
+
+    static int encodedLength(int decodedLength) {
+        return (decodedLength * 4 + 2) / 3;
+    }
+
+    // Returns the offset after the last character written.
+    static int encode(byte[] source, int from, int to, byte[] target, int offset) {
+        int in = from;
+        int out = offset;
+        while (to - in >= 3) {
+            int bits = (source[in] & 0xFF) << 16 | (source[in + 1] & 0xFF) << 8 | source[in + 2] & 0xFF;
+            target[out++] = ALPHABET[bits >>> 18];
+            target[out++] = ALPHABET[(bits >>> 12) & 0x3F];
+            target[out++] = ALPHABET[(bits >>> 6) & 0x3F];
+            target[out++] = ALPHABET[bits & 0x3F];
+            in += 3;
+        }
+
+        int remaining = to - in;
+        if (remaining > 0) {
+            int bits = (source[in] & 0xFF) << 16 | (remaining == 2 ? (source[in + 1] & 0xFF) << 8 : 0);
+            target[out++] = ALPHABET[bits >>> 18];
+            target[out++] = ALPHABET[(bits >>> 12) & 0x3F];
+            if (remaining == 2) {
+                target[out++] = ALPHABET[(bits >>> 6) & 0x3F];
+            }
+        }
+        return out;
+    }
+
+    static int decode(byte[] source, int from, int to, byte[] target) {
+        int length = to - from;
+        if (length % 4 == 1) {
+            return -1;
+        }
+
+        int out = 0;
+        int bits = 0;
+        int bitCount = 0;
+        for (int i = from; i < to; i++) {
+            int value = VALUES[source[i]];
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                target[out++] = (byte) (bits >> bitCount);
+            }
+        }
+
+        // Leftover bits must be zero, otherwise two encodings map to one value.
+        if ((bits & ((1 << bitCount) - 1)) != 0) {
+            return -1;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,14 @@
+package com.wsc.auth.lib.security.token;
+
+import java.util.Collection;
+
+// Target for the library's own claims, so one method can fill either a jjwt
+// builder or a TokenDraft. Null strings leave the claim out.
+public interface ClaimWriter {
+
+    void string(String name, String value);
+
+    void number(String name, long value);
+
+    void strings(String name, Collection<String> values);
+}
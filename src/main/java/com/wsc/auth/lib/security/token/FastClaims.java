@@ -0,0 +1,108 @@
+package com.wsc.auth.lib.security.token;
+
+// The claims the library itself writes, read straight from a verified payload.
+// Both the standard and the compact claim names are captured so the caller
+// can apply its profile; numeric claims use presence flags instead of boxing.
+public final class FastClaims {
+
+    static final int ISSUED_AT = 1;
+    static final int EXPIRATION = 1 << 1;
+    static final int NOT_BEFORE = 1 << 2;
+    static final int ROLE_BITS = 1 << 3;
+    static final int SCOPE_BITS = 1 << 4;
+
+    String subject;
+    String issuer;
+    String tokenId;
+    String familyId;
+    String type;
+    String compactType;
+    String name;
+    String compactName;
+    String email;
+    String compactEmail;
+    String role;
+    String compactRole;
+    long issuedAt;
+    long expiration;
+    long notBefore;
+    long roleBits;
+    long scopeBits;
+    int present;
+
+    FastClaims() {
+    }
+
+    public String subject() {
+        return subject;
+    }
+
+    public String issuer() {
+        return issuer;
+    }
+
+    public String tokenId() {
+        return tokenId;
+    }
+
+    public String familyId() {
+        return familyId;
+    }
+
+    public String type(boolean compact) {
+        return compact && compactType != null ? compactType : type;
+    }
+
+    public String name(boolean compact) {
+        return compact && compactName != null ? compactName : name;
+    }
+
+    public String email(boolean compact) {
+        return compact && compactEmail != null ? compactEmail : email;
+    }
+
+    public String role(boolean compact) {
+        return compact && compactRole != null ? compactRole : role;
+    }
+
+    public boolean hasIssuedAt() {
+        return (present & ISSUED_AT) != 0;
+    }
+
+    // Epoch seconds.
+    public long issuedAt() {
+        return issuedAt;
+    }
+
+    public boolean hasExpiration() {
+        return (present & EXPIRATION) != 0;
+    }
+
+    public long expiration() {
+        return expiration;
+    }
+
+    public boolean hasNotBefore() {
+        return (present & NOT_BEFORE) != 0;
+    }
+
+    public long notBefore() {
+        return notBefore;
+    }
+
+    public boolean hasRoleBits() {
+        return (present & ROLE_BITS) != 0;
+    }
+
+    public long roleBits() {
+        return roleBits;
+    }
+
+    public boolean hasScopeBits() {
+        return (present & SCOPE_BITS) != 0;
+    }
+
+    public long scopeBits() {
+        return scopeBits;
+    }
+}
@@ -0,0 +1,222 @@
+package com.wsc.auth.lib.security.token;
+
+import com.wsc.auth.lib.security.key.JwtKey;
+import com.wsc.auth.lib.security.key.KeyRing;
+
+import javax.crypto.Mac;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Verifies HS256/384/512 tokens in the library's own format without jjwt:
+// the token is copied once into a reused ASCII buffer, the MAC is computed
+// over the header.payload bytes with a reused Mac, the signature is compared
+// in constant time and only then is the payload decoded and read. Any token
+// this class does not fully understand yields null and goes through jjwt,
+// which then also produces the precise failure reason.
+public final class HmacTokenVerifier {
+
+    private static final int MAX_HEADERS = 16;
+    private static final int MAX_TOKEN_LENGTH = 8192;
+
+    private final LocalPool<Scratch> scratch = new LocalPool<>(Scratch::new, 256);
+
+    private final AtomicReference<State> state;
+
+    public HmacTokenVerifier(KeyRing keyRing) {
+        this.state = new AtomicReference<>(new State(keyRing, new HeaderEntry[0]));
+    }
+
+    public void rotate(KeyRing keyRing) {
+        state.set(new State(keyRing, new HeaderEntry[0]));
+    }
+
+    // Accepts any CharSequence, such as a TokenSlice of a request header; the
+    // characters are read in place and never turned into a String.
+    public FastClaims verify(CharSequence token) {
+        int length = token.length();
+        if (length > MAX_TOKEN_LENGTH) {
+            return null;
+        }
+
+        int firstDot = indexOf(token, '.', 0);
+        int secondDot = firstDot < 0 ? -1 : indexOf(token, '.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0 || indexOf(token, '.', secondDot + 1) >= 0) {
+            return null;
+        }
+
+        Scratch buffers = scratch.acquire();
+        try {
+            if (!buffers.load(token)) {
+                return null;
+            }
+
+            HmacKey key = this.resolveKey(token, firstDot, buffers);
+            if (key == null) {
+                return null;
+            }
+
+            if (length - secondDot - 1 != key.encodedLength()) {
+                return null;
+            }
+
+            Mac mac = buffers.mac(key);
+            mac.update(buffers.input, 0, secondDot);
+            mac.doFinal(buffers.expected, 0);
+
+            int signatureLength = Base64Url.decode(buffers.input, secondDot + 1, length, buffers.signature);
+            if (signatureLength != key.length() || !constantTimeEquals(buffers.expected, buffers.signature, signatureLength)) {
+                return null;
+            }
+
+            byte[] payload = buffers.payload(Base64Url.decodedLength(secondDot - firstDot - 1));
+            int payloadLength = Base64Url.decode(buffers.input, firstDot + 1, secondDot, payload);
+            if (payloadLength < 0) {
+                return null;
+            }
+            return TokenClaimsReader.readClaims(payload, payloadLength);
+        } catch (GeneralSecurityException e) {
+            buffers.key = null;
+            return null;
+        } finally {
+            scratch.release(buffers);
+        }
+    }
+
+    // Tokens from one issuer share a handful of header segments, so they are
+    // matched as strings and decoded only the first time they are seen.
+    private HmacKey resolveKey(CharSequence token, int headerLength, Scratch buffers) {
+        State current = state.get();
+        for (HeaderEntry entry : current.headers) {
+            if (entry.segment.length() == headerLength && startsWith(token, entry.segment)) {
+                return entry.key;
+            }
+        }
+
+        byte[] decoded = buffers.payload(Base64Url.decodedLength(headerLength));
+        int decodedLength = Base64Url.decode(buffers.input, 0, headerLength, decoded);
+        if (decodedLength < 0) {
+            return null;
+        }
+
+        TokenClaimsReader.Header header = TokenClaimsReader.readHeader(decoded, decodedLength);
+        if (header == null || header.algorithm == null) {
+            return null;
+        }
+
+        JwtKey jwtKey = current.keyRing.find(header.keyId);
+        HmacKey key = jwtKey == null ? null : HmacKey.of(jwtKey);
+        if (key == null || !key.algorithm().equals(header.algorithm)) {
+            return null;
+        }
+
+        if (current.headers.length < MAX_HEADERS) {
+            HeaderEntry[] headers = Arrays.copyOf(current.headers, current.headers.length + 1);
+            headers[current.headers.length] = new HeaderEntry(token.subSequence(0, headerLength).toString(), key);
+            // Published only over the state the key was resolved from, so a
+            // concurrent rotation is never undone; a lost entry is re-decoded.
+            state.compareAndSet(current, new State(current.keyRing, headers));
+        }
+        return key;
+    }
+
+    private static int indexOf(CharSequence token, char c, int from) {
+        for (int i = from; i < token.length(); i++) {
+            if (token.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(CharSequence token, String prefix) {
+        for (int i = 0; i < prefix.length(); i++) {
+            if (token.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean constantTimeEquals(byte[] expected, byte[] actual, int length) {
+        int difference = 0;
+        for (int i = 0; i < length; i++) {
+            difference |= expected[i] ^ actual[i];
+        }
+        return difference == 0;
+    }
+
+    private record State(KeyRing keyRing, HeaderEntry[] headers) {
+    }
+
+    private record HeaderEntry(String segment, HmacKey key) {
+    }
+
+    private record HmacKey(SecretKey secretKey, String algorithm, String macAlgorithm, int length) {
+
+        private int encodedLength() {
+            return (length * 8 + 5) / 6;
+        }
+
+        private static HmacKey of(JwtKey key) {
+            if (!(key.verificationKey() instanceof SecretKey secretKey)) {
+                return null;
+            }
+
+            String algorithm = JwsAlgorithms.of(key);
+            return switch (Objects.requireNonNullElse(algorithm, "")) {
+                case "HS256" -> new HmacKey(secretKey, algorithm, "HmacSHA256", 32);
+                case "HS384" -> new HmacKey(secretKey, algorithm, "HmacSHA384", 48);
+                case "HS512" -> new HmacKey(secretKey, algorithm, "HmacSHA512", 64);
+                default -> null;
+            };
+        }
+    }
+
+    private static final class Scratch {
+
+        private byte[] input = new byte[512];
+        private byte[] payload = new byte[512];
+        private final byte[] expected = new byte[64];
+        private final byte[] signature = new byte[96];
+
+        private HmacKey key;
+        private Mac mac;
+
+        private boolean load(CharSequence token) {
+            int length = token.length();
+            if (input.length < length) {
+                input = new byte[Math.max(length, input.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                char c = token.charAt(i);
+                if (c >= 0x80) {
+                    return false;
+                }
+                input[i] = (byte) c;
+            }
+            return true;
+        }
+
+        private byte[] payload(int length) {
+            if (payload.length < length) {
+                payload = new byte[Math.max(length, payload.length * 2)];
+            }
+            return payload;
+        }
+
+        private Mac mac(HmacKey key) throws GeneralSecurityException {
+            if (this.key == key) {
+                return mac;
+            }
+            if (mac == null || !mac.getAlgorithm().equals(key.macAlgorithm())) {
+                mac = Mac.getInstance(key.macAlgorithm());
+            }
+            mac.init(key.secretKey());
+            this.key = key;
+            return mac;
+        }
+    }
+}
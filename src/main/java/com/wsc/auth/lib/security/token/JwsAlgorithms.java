@@ -0,0 +1,46 @@
+package com.wsc.auth.lib.security.token;
+
+import com.wsc.auth.lib.security.key.JwtKey;
+
+import java.security.Key;
+
+// Maps library keys to JWS algorithm ids and the JCA names that implement
+// them. Null means the algorithm is left to jjwt.
+final class JwsAlgorithms {
+
+    private JwsAlgorithms() {
+    }
+
+    // HMAC keys built from a bare secret carry no algorithm; jjwt then picks
+    // it from the key's Hmac algorithm, and so does this.
+    static String of(JwtKey key) {
+        if (key.algorithm() != null) {
+            return key.algorithm().getId();
+        }
+        Key secret = key.signingKey() != null ? key.signingKey() : key.verificationKey();
+        return switch (secret.getAlgorithm()) {
+            case "HmacSHA256" -> "HS256";
+            case "HmacSHA384" -> "HS384";
+            case "HmacSHA512" -> "HS512";
+            default -> null;
+        };
+    }
+
+    // ECDSA signatures in a JWS are the fixed-size r || s concatenation,
+    // which is what the P1363 variants produce.
+    static String jcaName(String algorithm) {
+        return switch (algorithm) {
+            case "HS256" -> "HmacSHA256";
+            case "HS384" -> "HmacSHA384";
+            case "HS512" -> "HmacSHA512";
+            case "RS256" -> "SHA256withRSA";
+            case "RS384" -> "SHA384withRSA";
+            case "RS512" -> "SHA512withRSA";
+            case "ES256" -> "SHA256withECDSAinP1363Format";
+            case "ES384" -> "SHA384withECDSAinP1363Format";
+            case "ES512" -> "SHA512withECDSAinP1363Format";
+            case "EdDSA" -> "EdDSA";
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.wsc.auth.lib.security.token;
+
+import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Reusable per-thread state (Mac instances, scratch buffers). Platform threads
+// keep one instance in a thread local. Virtual threads are created per task,
+// so a thread local would never be reused; they borrow from a small shared
+// queue instead and return the instance when done.
+final class LocalPool<T> {
+
+    private final Supplier<T> factory;
+    private final ThreadLocal<T> local;
+    private final ConcurrentLinkedQueue<T> shared = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger sharedSize = new AtomicInteger();
+    private final int maxShared;
+
+    LocalPool(Supplier<T> factory, int maxShared) {
+        this.factory = factory;
+        this.local = ThreadLocal.withInitial(factory);
+        this.maxShared = maxShared;
+    }
+
+    T acquire() {
+        if (!Thread.currentThread().isVirtual()) {
+            return local.get();
+        }
+        T value = shared.poll();
+        if (value == null) {
+            return factory.get();
+        }
+        sharedSize.decrementAndGet();
+        return value;
+    }
+
+    void release(T value) {
+        if (!Thread.currentThread().isVirtual()) {
+            return;
+        }
+        if (sharedSize.incrementAndGet() <= maxShared) {
+            shared.offer(value);
+        } else {
+            sharedSize.decrementAndGet();
+        }
+    }
+}
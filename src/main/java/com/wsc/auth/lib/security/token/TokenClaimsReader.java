@@ -0,0 +1,457 @@
+package com.wsc.auth.lib.security.token;
+
+import java.nio.charset.StandardCharsets;
+
+// Single-pass reader for the flat JSON objects the library writes as JWT
+// header and payload. It captures the known members and skips unknown scalar
+// ones; nested values, fractional numbers, escaped member names and repeated
+// known members return null so jjwt handles the token instead.
+final class TokenClaimsReader {
+
+    private static final byte[] ALG = ascii("alg");
+    private static final byte[] KID = ascii("kid");
+    private static final byte[] TYP = ascii("typ");
+
+    private static final byte[] SUB = ascii("sub");
+    private static final byte[] ISS = ascii("iss");
+    private static final byte[] JTI = ascii("jti");
+    private static final byte[] IAT = ascii("iat");
+    private static final byte[] EXP = ascii("exp");
+    private static final byte[] NBF = ascii("nbf");
+    private static final byte[] FAM = ascii("fam");
+    private static final byte[] TYPE = ascii("type");
+    private static final byte[] NAME = ascii("name");
+    private static final byte[] EMAIL = ascii("email");
+    private static final byte[] ROLE = ascii("role");
+    private static final byte[] ROLE_BITS = ascii("rb");
+    private static final byte[] SCOPE_BITS = ascii("sb");
+    private static final byte[] COMPACT_TYPE = ascii("t");
+    private static final byte[] COMPACT_NAME = ascii("n");
+    private static final byte[] COMPACT_EMAIL = ascii("e");
+    private static final byte[] COMPACT_ROLE = ascii("r");
+
+    private final byte[] buffer;
+    private final int end;
+    private int position;
+    private int seen;
+    private boolean duplicate;
+    private String text;
+    private long number;
+
+    private TokenClaimsReader(byte[] buffer, int length) {
+        this.buffer = buffer;
+        this.end = length;
+    }
+
+    static Header readHeader(byte[] buffer, int length) {
+        TokenClaimsReader reader = new TokenClaimsReader(buffer, length);
+        Header header = new Header();
+        return reader.readObject(header) ? header : null;
+    }
+
+    static FastClaims readClaims(byte[] buffer, int length) {
+        TokenClaimsReader reader = new TokenClaimsReader(buffer, length);
+        FastClaims claims = new FastClaims();
+        return reader.readObject(claims) ? claims : null;
+    }
+
+    private boolean readObject(Object target) {
+        skipWhitespace();
+        if (!consume('{')) {
+            return false;
+        }
+        skipWhitespace();
+        if (consume('}')) {
+            return trailingWhitespaceOnly();
+        }
+
+        while (true) {
+            skipWhitespace();
+            int keyStart = position + 1;
+            int keyEnd = skipPlainString();
+            if (keyEnd < 0) {
+                return false;
+            }
+            skipWhitespace();
+            if (!consume(':')) {
+                return false;
+            }
+            skipWhitespace();
+
+            boolean accepted = target instanceof Header header
+                    ? readHeaderMember(header, keyStart, keyEnd)
+                    : readClaimMember((FastClaims) target, keyStart, keyEnd);
+            if (!accepted || duplicate) {
+                return false;
+            }
+
+            skipWhitespace();
+            if (consume(',')) {
+                continue;
+            }
+            return consume('}') && trailingWhitespaceOnly();
+        }
+    }
+
+    private boolean readHeaderMember(Header header, int keyStart, int keyEnd) {
+        if (is(ALG, keyStart, keyEnd, 0)) {
+            return (header.algorithm = readString()) != null;
+        }
+        if (is(KID, keyStart, keyEnd, 1)) {
+            return (header.keyId = readString()) != null;
+        }
+        if (is(TYP, keyStart, keyEnd, 2)) {
+            return readString() != null;
+        }
+        // Anything else (crit, zip, b64, jwk...) changes how the token must be
+        // processed, which only jjwt knows how to do.
+        return false;
+    }
+
+    private boolean readClaimMember(FastClaims claims, int keyStart, int keyEnd) {
+        int length = keyEnd - keyStart;
+
+        switch (length) {
+            case 1 -> {
+                if (is(COMPACT_TYPE, keyStart, keyEnd, 0)) {
+                    return (claims.compactType = readString()) != null;
+                }
+                if (is(COMPACT_ROLE, keyStart, keyEnd, 1)) {
+                    if (!readNullableString()) {
+                        return false;
+                    }
+                    claims.compactRole = text;
+                    return true;
+                }
+                if (is(COMPACT_NAME, keyStart, keyEnd, 2)) {
+                    if (!readNullableString()) {
+                        return false;
+                    }
+                    claims.compactName = text;
+                    return true;
+                }
+                if (is(COMPACT_EMAIL, keyStart, keyEnd, 3)) {
+                    if (!readNullableString()) {
+                        return false;
+                    }
+                    claims.compactEmail = text;
+                    return true;
+                }
+            }
+            case 2 -> {
+                if (is(ROLE_BITS, keyStart, keyEnd, 4)) {
+                    claims.present |= FastClaims.ROLE_BITS;
+                    if (!readLong()) {
+                        return false;
+                    }
+                    claims.roleBits = number;
+                    return true;
+                }
+                if (is(SCOPE_BITS, keyStart, keyEnd, 5)) {
+                    claims.present |= FastClaims.SCOPE_BITS;
+                    if (!readLong()) {
+                        return false;
+                    }
+                    claims.scopeBits = number;
+                    return true;
+                }
+            }
+            case 3 -> {
+                if (is(SUB, keyStart, keyEnd, 6)) {
+                    return (claims.subject = readString()) != null;
+                }
+                if (is(EXP, keyStart, keyEnd, 7)) {
+                    claims.present |= FastClaims.EXPIRATION;
+                    if (!readLong()) {
+                        return false;
+                    }
+                    claims.expiration = number;
+                    return true;
+                }
+                if (is(IAT, keyStart, keyEnd, 8)) {
+                    claims.present |= FastClaims.ISSUED_AT;
+                    if (!readLong()) {
+                        return false;
+                    }
+                    claims.issuedAt = number;
+                    return true;
+                }
+                if (is(ISS, keyStart, keyEnd, 9)) {
+                    return (claims.issuer = readString()) != null;
+                }
+                if (is(JTI, keyStart, keyEnd, 10)) {
+                    return (claims.tokenId = readString()) != null;
+                }
+                if (is(FAM, keyStart, keyEnd, 11)) {
+                    return (claims.familyId = readString()) != null;
+                }
+                if (is(NBF, keyStart, keyEnd, 12)) {
+                    claims.present |= FastClaims.NOT_BEFORE;
+                    if (!readLong()) {
+                        return false;
+                    }
+                    claims.notBefore = number;
+                    return true;
+                }
+            }
+            case 4 -> {
+                if (is(TYPE, keyStart, keyEnd, 13)) {
+                    return (claims.type = readString()) != null;
+                }
+                if (is(ROLE, keyStart, keyEnd, 14)) {
+                    if (!readNullableString()) {
+                        return false;
+                    }
+                    claims.role = text;
+                    return true;
+                }
+                if (is(NAME, keyStart, keyEnd, 15)) {
+                    if (!readNullableString()) {
+                        return false;
+                    }
+                    claims.name = text;
+                    return true;
+                }
+            }
+            case 5 -> {
+                if (is(EMAIL, keyStart, keyEnd, 16)) {
+                    if (!readNullableString()) {
+                        return false;
+                    }
+                    claims.email = text;
+                    return true;
+                }
+            }
+            default -> {
+            }
+        }
+        return skipScalar();
+    }
+
+    // Matches a member name and records it; a second occurrence of a known
+    // member fails the match so the whole token falls back.
+    private boolean is(byte[] name, int keyStart, int keyEnd, int bit) {
+        if (keyEnd - keyStart != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (buffer[keyStart + i] != name[i]) {
+                return false;
+            }
+        }
+        if ((seen & (1 << bit)) != 0) {
+            duplicate = true;
+            return false;
+        }
+        seen |= 1 << bit;
+        return true;
+    }
+
+    private boolean readNullableString() {
+        if (consumeLiteral("null")) {
+            text = null;
+            return true;
+        }
+        text = readString();
+        return text != null;
+    }
+
+    private String readString() {
+        if (position >= end || buffer[position] != '"') {
+            return null;
+        }
+        int start = ++position;
+        boolean ascii = true;
+
+        while (position < end) {
+            byte b = buffer[position];
+            if (b == '"') {
+                String value = new String(buffer, start, position - start,
+                        ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+                position++;
+                return value;
+            }
+            if (b == '\\') {
+                position = start - 1;
+                return readEscapedString();
+            }
+            if (b >= 0 && b < 0x20) {
+                return null;
+            }
+            if (b < 0) {
+                ascii = false;
+            }
+            position++;
+        }
+        return null;
+    }
+
+    private String readEscapedString() {
+        position++;
+        int start = position;
+        StringBuilder value = new StringBuilder();
+        int chunkStart = start;
+
+        while (position < end) {
+            byte b = buffer[position];
+            if (b == '"') {
+                value.append(new String(buffer, chunkStart, position - chunkStart, StandardCharsets.UTF_8));
+                position++;
+                return value.toString();
+            }
+            if (b >= 0 && b < 0x20) {
+                return null;
+            }
+            if (b != '\\') {
+                position++;
+                continue;
+            }
+
+            value.append(new String(buffer, chunkStart, position - chunkStart, StandardCharsets.UTF_8));
+            if (++position >= end) {
+                return null;
+            }
+            switch (buffer[position]) {
+                case '"' -> value.append('"');
+                case '\\' -> value.append('\\');
+                case '/' -> value.append('/');
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'u' -> {
+                    if (position + 4 >= end) {
+                        return null;
+                    }
+                    int code = 0;
+                    for (int i = 1; i <= 4; i++) {
+                        int digit = Character.digit(buffer[position + i], 16);
+                        if (digit < 0) {
+                            return null;
+                        }
+                        code = (code << 4) | digit;
+                    }
+                    value.append((char) code);
+                    position += 4;
+                }
+                default -> {
+                    return null;
+                }
+            }
+            position++;
+            chunkStart = position;
+        }
+        return null;
+    }
+
+    // Member names: plain ASCII without escapes.
+    private int skipPlainString() {
+        if (position >= end || buffer[position] != '"') {
+            return -1;
+        }
+        position++;
+        while (position < end) {
+            byte b = buffer[position];
+            if (b == '"') {
+                return position++;
+            }
+            if (b == '\\' || b < 0x20) {
+                return -1;
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    private boolean readLong() {
+        int start = position;
+        boolean negative = consume('-');
+        long value = 0;
+        int digits = 0;
+
+        while (position < end && buffer[position] >= '0' && buffer[position] <= '9') {
+            if (++digits > 18) {
+                return false;
+            }
+            value = value * 10 + (buffer[position++] - '0');
+        }
+        if (digits == 0 || (digits > 1 && buffer[start + (negative ? 1 : 0)] == '0')) {
+            return false;
+        }
+        if (position < end && (buffer[position] == '.' || buffer[position] == 'e' || buffer[position] == 'E')) {
+            return false;
+        }
+        number = negative ? -value : value;
+        return true;
+    }
+
+    private boolean skipScalar() {
+        if (duplicate || position >= end) {
+            return false;
+        }
+        byte b = buffer[position];
+        if (b == '"') {
+            return readString() != null;
+        }
+        if (b == '-' || (b >= '0' && b <= '9')) {
+            position++;
+            while (position < end) {
+                byte next = buffer[position];
+                if ((next >= '0' && next <= '9') || next == '.' || next == 'e' || next == 'E' || next == '+' || next == '-') {
+                    position++;
+                } else {
+                    break;
+                }
+            }
+            return true;
+        }
+        return consumeLiteral("true") || consumeLiteral("false") || consumeLiteral("null");
+    }
+
+    private boolean consumeLiteral(String literal) {
+        if (position + literal.length() > end) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (buffer[position + i] != literal.charAt(i)) {
+                return false;
+            }
+        }
+        position += literal.length();
+        return true;
+    }
+
+    private boolean consume(char expected) {
+        if (position < end && buffer[position] == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (position < end) {
+            byte b = buffer[position];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private boolean trailingWhitespaceOnly() {
+        skipWhitespace();
+        return position == end;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    static final class Header {
+
+        String algorithm;
+        String keyId;
+    }
+}
@@ -0,0 +1,234 @@
+package com.wsc.auth.lib.security.token;
+
+import javax.crypto.Mac;
+import java.security.Signature;
+import java.util.Collection;
+import javax.crypto.SecretKey;
+import java.security.PrivateKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+// One token being written by TokenSigner. The claim set is serialized straight
+// into a reused UTF-8 buffer and signed with a Mac or Signature that stays
+// initialized for the key, so issuing a token allocates little more than the
+// resulting String. Drafts are pooled: always close them, ideally with
+// try-with-resources.
+public final class TokenDraft implements ClaimWriter, AutoCloseable {
+
+    private final TokenSigner owner;
+
+    private byte[] json = new byte[512];
+    private byte[] output = new byte[1024];
+    private final byte[] signature = new byte[1024];
+
+    private TokenSigner.SigningKey key;
+    private int length;
+    private boolean open;
+
+    private TokenSigner.SigningKey macKey;
+    private Mac mac;
+    private TokenSigner.SigningKey signerKey;
+    private Signature signer;
+
+    TokenDraft(TokenSigner owner) {
+        this.owner = owner;
+    }
+
+    boolean isOpen() {
+        return open;
+    }
+
+    void begin(TokenSigner.SigningKey key) {
+        this.key = key;
+        this.open = true;
+        json[0] = '{';
+        length = 1;
+    }
+
+    @Override
+    public void string(String name, String value) {
+        if (value == null) {
+            return;
+        }
+        this.member(name);
+        this.writeString(value);
+    }
+
+    @Override
+    public void number(String name, long value) {
+        this.member(name);
+        this.ensure(20);
+        if (value == Long.MIN_VALUE) {
+            this.writeAscii(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            json[length++] = '-';
+            value = -value;
+        }
+        int start = length;
+        do {
+            json[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte digit = json[i];
+            json[i] = json[j];
+            json[j] = digit;
+        }
+    }
+
+    @Override
+    public void strings(String name, Collection<String> values) {
+        this.member(name);
+        this.ensure(1);
+        json[length++] = '[';
+        boolean first = true;
+        for (String value : values) {
+            this.ensure(5);
+            if (!first) {
+                json[length++] = ',';
+            }
+            first = false;
+            if (value == null) {
+                this.writeAscii("null");
+            } else {
+                this.writeString(value);
+            }
+        }
+        this.ensure(1);
+        json[length++] = ']';
+    }
+
+    public String sign() {
+        this.ensure(1);
+        json[length++] = '}';
+
+        byte[] header = key.header();
+        int capacity = header.length + Base64Url.encodedLength(length) + 1 + Base64Url.encodedLength(signature.length);
+        if (output.length < capacity) {
+            output = new byte[Math.max(capacity, output.length * 2)];
+        }
+
+        System.arraycopy(header, 0, output, 0, header.length);
+        int position = Base64Url.encode(json, 0, length, output, header.length);
+
+        int signatureLength;
+        try {
+            signatureLength = this.computeSignature(position);
+        } catch (GeneralSecurityException e) {
+            macKey = null;
+            signerKey = null;
+            throw new IllegalStateException("Could not sign token with " + key.algorithm(), e);
+        }
+
+        output[position++] = '.';
+        position = Base64Url.encode(signature, 0, signatureLength, output, position);
+        return new String(output, 0, position, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public void close() {
+        if (open) {
+            open = false;
+            key = null;
+            owner.release(this);
+        }
+    }
+
+    private int computeSignature(int signingInputLength) throws GeneralSecurityException {
+        if (key.mac()) {
+            if (macKey != key) {
+                if (mac == null || !mac.getAlgorithm().equals(key.jcaName())) {
+                    mac = Mac.getInstance(key.jcaName());
+                }
+                mac.init((SecretKey) key.signingKey());
+                macKey = key;
+            }
+            mac.update(output, 0, signingInputLength);
+            mac.doFinal(signature, 0);
+            return mac.getMacLength();
+        }
+
+        // A Signature returns to its initialized state after sign(), so it
+        // only has to be re-initialized when the key changes.
+        if (signerKey != key) {
+            signer = Signature.getInstance(key.jcaName());
+            signer.initSign((PrivateKey) key.signingKey());
+            signerKey = key;
+        }
+        signer.update(output, 0, signingInputLength);
+        return signer.sign(signature, 0, signature.length);
+    }
+
+    private void member(String name) {
+        this.ensure(1);
+        if (length > 1) {
+            json[length++] = ',';
+        }
+        this.writeString(name);
+        this.ensure(1);
+        json[length++] = ':';
+    }
+
+    private void writeAscii(String value) {
+        this.ensure(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            json[length++] = (byte) value.charAt(i);
+        }
+    }
+
+    // Writes a JSON string as UTF-8. Control characters and lone surrogates
+    // are escaped; every char takes at most six bytes.
+    private void writeString(String value) {
+        int count = value.length();
+        this.ensure(count * 6 + 2);
+
+        json[length++] = '"';
+        for (int i = 0; i < count; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    json[length++] = '\\';
+                    json[length++] = (byte) c;
+                } else if (c < 0x20) {
+                    this.writeEscape(c);
+                } else {
+                    json[length++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                json[length++] = (byte) (0xC0 | (c >> 6));
+                json[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                json[length++] = (byte) (0xF0 | (codePoint >> 18));
+                json[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                json[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                json[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                this.writeEscape(c);
+            } else {
+                json[length++] = (byte) (0xE0 | (c >> 12));
+                json[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                json[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        json[length++] = '"';
+    }
+
+    private void writeEscape(char c) {
+        json[length++] = '\\';
+        json[length++] = 'u';
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            json[length++] = (byte) Character.forDigit((c >> shift) & 0xF, 16);
+        }
+    }
+
+    private void ensure(int additional) {
+        if (length + additional > json.length) {
+            byte[] larger = new byte[Math.max(length + additional, json.length * 2)];
+            System.arraycopy(json, 0, larger, 0, length);
+            json = larger;
+        }
+    }
+}
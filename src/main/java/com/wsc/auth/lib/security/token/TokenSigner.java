@@ -0,0 +1,95 @@
+package com.wsc.auth.lib.security.token;
+
+import com.wsc.auth.lib.security.key.JwtKey;
+import com.wsc.auth.lib.security.key.KeyRing;
+
+import java.util.Base64;
+import java.security.Key;
+import java.nio.charset.StandardCharsets;
+
+// Issues tokens without going through Jwts.builder(). The encoded header
+// segment is computed once per key, and drafts (with their buffers and their
+// initialized Mac or Signature) are reused per thread, or pooled on virtual
+// threads.
+public final class TokenSigner {
+
+    private final LocalPool<TokenDraft> drafts = new LocalPool<>(() -> new TokenDraft(this), 256);
+
+    private volatile SigningKey active;
+
+    public TokenSigner(KeyRing keyRing) {
+        this.active = SigningKey.of(keyRing.active());
+    }
+
+    public void rotate(KeyRing keyRing) {
+        this.active = SigningKey.of(keyRing.active());
+    }
+
+    // Null when the active key cannot sign or uses an algorithm this class
+    // does not implement; the caller then signs with jjwt.
+    public TokenDraft draft() {
+        SigningKey key = active;
+        if (key == null) {
+            return null;
+        }
+
+        TokenDraft draft = drafts.acquire();
+        if (draft.isOpen()) {
+            draft = new TokenDraft(this);
+        }
+        draft.begin(key);
+        return draft;
+    }
+
+    void release(TokenDraft draft) {
+        drafts.release(draft);
+    }
+
+    record SigningKey(Key signingKey, String algorithm, String jcaName, boolean mac, byte[] header) {
+
+        private static SigningKey of(JwtKey key) {
+            if (!key.canSign()) {
+                return null;
+            }
+
+            String algorithm = JwsAlgorithms.of(key);
+            String jcaName = algorithm != null ? JwsAlgorithms.jcaName(algorithm) : null;
+            if (jcaName == null) {
+                return null;
+            }
+
+            // Same members jjwt writes for these tokens: kid when present, then alg.
+            StringBuilder header = new StringBuilder("{");
+            if (key.kid() != null) {
+                header.append("\"kid\":").append(quote(key.kid())).append(',');
+            }
+            header.append("\"alg\":").append(quote(algorithm)).append('}');
+
+            String encoded = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(header.toString().getBytes(StandardCharsets.UTF_8)) + ".";
+
+            return new SigningKey(
+                    key.signingKey(),
+                    algorithm,
+                    jcaName,
+                    algorithm.startsWith("HS"),
+                    encoded.getBytes(StandardCharsets.US_ASCII)
+            );
+        }
+
+        private static String quote(String value) {
+            StringBuilder quoted = new StringBuilder("\"");
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    quoted.append('\\').append(c);
+                } else if (c < 0x20) {
+                    quoted.append(String.format("\\u%04x", (int) c));
+                } else {
+                    quoted.append(c);
+                }
+            }
+            return quoted.append('"').toString();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.wsc.auth.lib.security.token;
+
+import java.util.Objects;
+
+// A token as a range of the text it arrived in, such as the Authorization
+// header, so it reaches the verifier without being copied out. Two slices are
+// equal when they hold the same characters, whatever their sources.
+public final class TokenSlice implements CharSequence {
+
+    private final CharSequence source;
+    private final int start;
+    private final int end;
+
+    private TokenSlice(CharSequence source, int start, int end) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    public static TokenSlice of(CharSequence source) {
+        return of(source, 0, source.length());
+    }
+
+    public static TokenSlice of(CharSequence source, int start, int end) {
+        Objects.requireNonNull(source, "source");
+        Objects.checkFromToIndex(start, end, source.length());
+        return new TokenSlice(source, start, end);
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, end - start);
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public TokenSlice subSequence(int from, int to) {
+        Objects.checkFromToIndex(from, to, end - start);
+        return new TokenSlice(source, start + from, start + to);
+    }
+
+    // Copies, except when the slice spans a whole String.
+    @Override
+    public String toString() {
+        return source.subSequence(start, end).toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof TokenSlice slice) || slice.length() != this.length()) {
+            return false;
+        }
+        for (int i = 0; i < this.length(); i++) {
+            if (source.charAt(start + i) != slice.source.charAt(slice.start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        return hash;
+    }
+}
@@ -3,11 +3,37 @@ package com.wsc.auth.lib.service;
 import com.wsc.auth.lib.contract.JwtUser;
 import com.wsc.auth.lib.model.AuthResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface AuthenticationService {
 
     String generateHashPassword(String password);
 
     AuthResponse authenticate(String rawPassword, String password, JwtUser user);
 
+    AuthResponse authenticate(String rawPassword, String password, JwtUser user, String clientKey);
+
+    AuthResponse authenticateUnknownUser(String rawPassword, String clientKey);
+
+    // Login variants key the per-user limit by the identifier the user
+    // submitted, so a missing account locks out exactly like an existing one.
+    AuthResponse authenticate(String login, String rawPassword, String password, JwtUser user, String clientKey);
+
+    AuthResponse authenticateUnknownUser(String login, String rawPassword, String clientKey);
+
     AuthResponse authenticateWithRefreshToken(String refreshToken);
+
+    CompletableFuture<String> generateHashPasswordAsync(String password);
+
+    CompletableFuture<AuthResponse> authenticateAsync(String rawPassword, String password, JwtUser user);
+
+    CompletableFuture<AuthResponse> authenticateAsync(String rawPassword, String password, JwtUser user, String clientKey);
+
+    CompletableFuture<AuthResponse> authenticateUnknownUserAsync(String rawPassword, String clientKey);
+
+    CompletableFuture<AuthResponse> authenticateAsync(String login, String rawPassword, String password, JwtUser user, String clientKey);
+
+    CompletableFuture<AuthResponse> authenticateUnknownUserAsync(String login, String rawPassword, String clientKey);
+
+    CompletableFuture<AuthResponse> authenticateWithRefreshTokenAsync(String refreshToken);
 }
@@ -1,12 +1,42 @@
 package com.wsc.auth.lib.service;
 
 import com.wsc.auth.lib.model.UserInfo;
+import com.wsc.auth.lib.enums.TokenType;
 import com.wsc.auth.lib.contract.JwtUser;
+import com.wsc.auth.lib.model.TokenBatch;
+import com.wsc.auth.lib.model.TokenValidation;
+import com.wsc.auth.lib.security.token.TokenSlice;
 
 import java.util.Date;
+import java.util.Collection;
 
 public interface JwtService {
 
+    TokenValidation validateToken(String token);
+
+    TokenValidation validateToken(String token, TokenType expectedType);
+
+    // Same checks as validateToken, but the returned user info only carries
+    // the id until another field is read. Implementations without a cheaper
+    // path validate eagerly.
+    default TokenValidation validateTokenLazily(String token, TokenType expectedType) {
+        return validateToken(token, expectedType);
+    }
+
+    // Slice variants take the token where it was found, e.g. inside the
+    // Authorization header. Implementations without an in-place path copy it.
+    default TokenValidation validateToken(TokenSlice token, TokenType expectedType) {
+        return validateToken(token.toString(), expectedType);
+    }
+
+    default TokenValidation validateTokenLazily(TokenSlice token, TokenType expectedType) {
+        return validateTokenLazily(token.toString(), expectedType);
+    }
+
+    boolean revokeToken(String token);
+
+    void revokeAllTokens(Long userId);
+
     UserInfo extractUserInfo(String token);
 
     boolean isInvalidTokenValid(String token);
@@ -19,6 +49,8 @@ public interface JwtService {
 
     String generateRefreshToken(JwtUser user, Date date);
 
+    TokenBatch generateTokenPairs(Collection<? extends JwtUser> users, Date date, boolean parallel);
+
     String generateTokenWithRefreshToken(String refreshToken);
 
     String generateNewRefreshToken(String refreshToken);
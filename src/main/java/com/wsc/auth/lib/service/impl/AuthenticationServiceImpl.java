@@ -1,14 +1,28 @@
 package com.wsc.auth.lib.service.impl;
 
+import io.jsonwebtoken.JwtException;
 import com.wsc.auth.lib.model.UserInfo;
+import com.wsc.auth.lib.enums.TokenType;
 import com.wsc.auth.lib.contract.JwtUser;
+import com.wsc.auth.lib.metrics.AuthMetrics;
 import com.wsc.auth.lib.model.AuthResponse;
+import com.wsc.auth.lib.enums.RefreshOutcome;
 import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.model.TokenValidation;
 import org.springframework.stereotype.Service;
+import com.wsc.auth.lib.enums.TokenInvalidReason;
+import com.wsc.auth.lib.executor.AuthTaskExecutor;
 import com.wsc.auth.lib.service.AuthenticationService;
+import com.wsc.auth.lib.ratelimit.LoginAttemptLimiter;
+import com.wsc.auth.lib.exception.RefreshTokenReuseException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import com.wsc.auth.lib.exception.AuthenticationOverloadedException;
+import com.wsc.auth.lib.exception.AuthenticationRateLimitedException;
 
 import java.util.Date;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AuthenticationServiceImpl implements AuthenticationService {
@@ -17,10 +31,36 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtProperties jwtProperties;
 
+    private AuthMetrics metrics = AuthMetrics.NOOP;
+    private AuthTaskExecutor hashingExecutor = AuthTaskExecutor.DIRECT;
+    private AuthTaskExecutor lookupExecutor = AuthTaskExecutor.DIRECT;
+    private LoginAttemptLimiter attemptLimiter;
+
+    private final String dummyHash;
+
     public AuthenticationServiceImpl(JwtServiceImpl jwtService, PasswordEncoder passwordEncoder, JwtProperties jwtProperties) {
         this.jwtService = jwtService;
         this.passwordEncoder = passwordEncoder;
         this.jwtProperties = jwtProperties;
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    public void setMetrics(AuthMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setHashingExecutor(AuthTaskExecutor hashingExecutor) {
+        this.hashingExecutor = hashingExecutor;
+    }
+
+    // Refresh rotation may block on an external RefreshTokenStore, so it gets its
+    // own executor instead of competing with CPU-bound hashing for permits.
+    public void setLookupExecutor(AuthTaskExecutor lookupExecutor) {
+        this.lookupExecutor = lookupExecutor;
+    }
+
+    public void setAttemptLimiter(LoginAttemptLimiter attemptLimiter) {
+        this.attemptLimiter = attemptLimiter;
     }
 
     @Override
@@ -30,11 +70,91 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     @Override
     public AuthResponse authenticate(String rawPassword, String password, JwtUser user) {
+        return this.authenticate(rawPassword, password, user, null);
+    }
+
+    @Override
+    public AuthResponse authenticate(String rawPassword, String password, JwtUser user, String clientKey) {
+        LoginAttemptLimiter.Attempt attempt = this.checkAttemptLimit(user.getId(), clientKey);
+        return this.verifyAndIssue(rawPassword, password, user, attempt);
+    }
+
+    // For callers whose user lookup missed: fails exactly like a wrong password,
+    // after matching against a dummy hash made at startup, so timing does not
+    // reveal whether the account exists.
+    @Override
+    public AuthResponse authenticateUnknownUser(String rawPassword, String clientKey) {
+        LoginAttemptLimiter.Attempt attempt = this.checkAttemptLimit(null, clientKey);
+        return this.rejectUnknownUser(rawPassword, attempt);
+    }
+
+    // login is the identifier the user was looked up by, as submitted. Use
+    // these two together: the id-keyed overloads above never share a count
+    // with an unknown user.
+    @Override
+    public AuthResponse authenticate(String login, String rawPassword, String password, JwtUser user, String clientKey) {
+        LoginAttemptLimiter.Attempt attempt = this.checkLoginLimit(login, clientKey);
+        return this.verifyAndIssue(rawPassword, password, user, attempt);
+    }
 
-        if (!passwordEncoder.matches(rawPassword, password)) {
+    @Override
+    public AuthResponse authenticateUnknownUser(String login, String rawPassword, String clientKey) {
+        LoginAttemptLimiter.Attempt attempt = this.checkLoginLimit(login, clientKey);
+        return this.rejectUnknownUser(rawPassword, attempt);
+    }
+
+    // Runs before the password comparison so a locked-out key costs a few
+    // counter reads instead of a hash computation. The attempt is counted as
+    // a failure up front and refunded once the password matches.
+    private LoginAttemptLimiter.Attempt checkAttemptLimit(Long userId, String clientKey) {
+        return attemptLimiter == null ? null : this.admit(attemptLimiter.acquire(userId, clientKey));
+    }
+
+    private LoginAttemptLimiter.Attempt checkLoginLimit(String login, String clientKey) {
+        return attemptLimiter == null ? null : this.admit(attemptLimiter.acquireForLogin(login, clientKey));
+    }
+
+    private LoginAttemptLimiter.Attempt admit(LoginAttemptLimiter.Attempt attempt) {
+        if (attempt == null) {
+            throw new AuthenticationRateLimitedException("Too many failed login attempts");
+        }
+        return attempt;
+    }
+
+    // An attempt the executor turned away never reached the hash, so it is
+    // not held against the user.
+    private <T> CompletableFuture<T> submitAttempt(LoginAttemptLimiter.Attempt attempt, Supplier<T> task) {
+        CompletableFuture<T> future = hashingExecutor.submit(task);
+        if (attempt != null) {
+            future.whenComplete((result, e) -> {
+                if (e instanceof AuthenticationOverloadedException) {
+                    attemptLimiter.recordSuccess(attempt);
+                }
+            });
+        }
+        return future;
+    }
+
+    private AuthResponse verifyAndIssue(String rawPassword, String password, JwtUser user, LoginAttemptLimiter.Attempt attempt) {
+
+        long start = metrics.start();
+        boolean matches = passwordEncoder.matches(rawPassword, password);
+        metrics.recordPasswordMatch(start, matches);
+
+        if (attempt != null) {
+            if (matches) {
+                attemptLimiter.recordSuccess(attempt);
+            } else {
+                attemptLimiter.recordFailure(attempt);
+            }
+        }
+
+        if (!matches) {
             throw new RuntimeException("Invalid credentials");
         }
 
+        boolean passwordUpgradeRequired = passwordEncoder.upgradeEncoding(password);
+
         Date date = new Date();
 
         String accessToken = jwtService.generateToken(user, date);
@@ -44,7 +164,10 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                 user.getId(),
                 user.getName(),
                 user.getEmail(),
-                user.getRole()
+                user.getRole(),
+                user.getRoles(),
+                user.getScopes(),
+                user.getClaims()
         );
 
         return new AuthResponse(
@@ -52,27 +175,116 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                 refreshToken,
                 "Bearer",
                 jwtProperties.getAccessTokenExpiration(),
-                userInfo
+                userInfo,
+                passwordUpgradeRequired
         );
     }
 
+    private AuthResponse rejectUnknownUser(String rawPassword, LoginAttemptLimiter.Attempt attempt) {
+
+        long start = metrics.start();
+        passwordEncoder.matches(rawPassword, dummyHash);
+        metrics.recordPasswordMatch(start, false);
+
+        if (attempt != null) {
+            attemptLimiter.recordFailure(attempt);
+        }
+        throw new RuntimeException("Invalid credentials");
+    }
+
     @Override
-    public AuthResponse authenticateWithRefreshToken(String refreshToken) {
+    public CompletableFuture<String> generateHashPasswordAsync(String password) {
+        return hashingExecutor.submit(() -> generateHashPassword(password));
+    }
 
-        if (jwtService.isInvalidTokenValid(refreshToken)) {
-            throw new RuntimeException("Invalid refresh token");
+    @Override
+    public CompletableFuture<AuthResponse> authenticateAsync(String rawPassword, String password, JwtUser user) {
+        return this.authenticateAsync(rawPassword, password, user, null);
+    }
+
+    // Rejected attempts fail before they take a hashing permit.
+    @Override
+    public CompletableFuture<AuthResponse> authenticateAsync(String rawPassword, String password, JwtUser user, String clientKey) {
+        LoginAttemptLimiter.Attempt attempt;
+        try {
+            attempt = this.checkAttemptLimit(user.getId(), clientKey);
+        } catch (AuthenticationRateLimitedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return this.submitAttempt(attempt, () -> verifyAndIssue(rawPassword, password, user, attempt));
+    }
+
+    @Override
+    public CompletableFuture<AuthResponse> authenticateUnknownUserAsync(String rawPassword, String clientKey) {
+        LoginAttemptLimiter.Attempt attempt;
+        try {
+            attempt = this.checkAttemptLimit(null, clientKey);
+        } catch (AuthenticationRateLimitedException e) {
+            return CompletableFuture.failedFuture(e);
         }
+        return this.submitAttempt(attempt, () -> rejectUnknownUser(rawPassword, attempt));
+    }
 
-        if (!jwtService.isRefreshToken(refreshToken)) {
+    @Override
+    public CompletableFuture<AuthResponse> authenticateAsync(String login, String rawPassword, String password, JwtUser user, String clientKey) {
+        LoginAttemptLimiter.Attempt attempt;
+        try {
+            attempt = this.checkLoginLimit(login, clientKey);
+        } catch (AuthenticationRateLimitedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return this.submitAttempt(attempt, () -> verifyAndIssue(rawPassword, password, user, attempt));
+    }
+
+    @Override
+    public CompletableFuture<AuthResponse> authenticateUnknownUserAsync(String login, String rawPassword, String clientKey) {
+        LoginAttemptLimiter.Attempt attempt;
+        try {
+            attempt = this.checkLoginLimit(login, clientKey);
+        } catch (AuthenticationRateLimitedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return this.submitAttempt(attempt, () -> rejectUnknownUser(rawPassword, attempt));
+    }
+
+    @Override
+    public CompletableFuture<AuthResponse> authenticateWithRefreshTokenAsync(String refreshToken) {
+        return lookupExecutor.submit(() -> authenticateWithRefreshToken(refreshToken));
+    }
+
+    @Override
+    public AuthResponse authenticateWithRefreshToken(String refreshToken) {
+
+        TokenValidation validation = jwtService.validateToken(refreshToken, TokenType.REFRESH);
+
+        if (validation.reason() == TokenInvalidReason.WRONG_TYPE) {
+            metrics.recordRefresh(RefreshOutcome.NOT_REFRESH_TOKEN);
             throw new RuntimeException("Is not a refresh token");
         }
 
-        UserInfo userInfo = jwtService.extractUserInfo(refreshToken);
+        if (!validation.isRefreshToken()) {
+            metrics.recordRefresh(RefreshOutcome.INVALID_TOKEN);
+            throw new RuntimeException("Invalid refresh token");
+        }
+
+        UserInfo userInfo = validation.userInfo();
 
         Date date = new Date();
 
+        String newRefreshToken;
+        try {
+            newRefreshToken = jwtService.rotateRefreshToken(validation, date);
+        } catch (RefreshTokenReuseException e) {
+            metrics.recordRefresh(RefreshOutcome.REUSE_DETECTED);
+            throw e;
+        } catch (JwtException e) {
+            metrics.recordRefresh(RefreshOutcome.INVALID_TOKEN);
+            throw new RuntimeException("Invalid refresh token");
+        }
+
         String newAccessToken = jwtService.generateToken(userInfo, date);
-        String newRefreshToken = jwtService.generateRefreshToken(userInfo, date);
+
+        metrics.recordRefresh(RefreshOutcome.REFRESHED);
 
         return new AuthResponse(
                 newAccessToken,
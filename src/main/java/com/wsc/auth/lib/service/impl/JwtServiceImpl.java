@@ -2,161 +2,852 @@ package com.wsc.auth.lib.service.impl;
 
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.LocatorAdapter;
 import com.wsc.auth.lib.model.UserInfo;
 import com.wsc.auth.lib.enums.TokenType;
+import io.jsonwebtoken.JwtParserBuilder;
 import com.wsc.auth.lib.contract.JwtUser;
+import com.wsc.auth.lib.model.TokenBatch;
 import com.wsc.auth.lib.service.JwtService;
+import io.jsonwebtoken.ExpiredJwtException;
+import com.wsc.auth.lib.enums.ClaimProfile;
+import com.wsc.auth.lib.model.LazyUserInfo;
+import com.wsc.auth.lib.metrics.AuthMetrics;
+import com.wsc.auth.lib.security.key.JwtKey;
+import com.wsc.auth.lib.security.key.KeyRing;
 import com.wsc.auth.lib.config.JwtProperties;
+import io.jsonwebtoken.MalformedJwtException;
+import com.wsc.auth.lib.security.key.JwtKeys;
+import com.wsc.auth.lib.enums.RotationResult;
+import com.wsc.auth.lib.model.TokenValidation;
 import org.springframework.stereotype.Service;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.IncorrectClaimException;
+import com.wsc.auth.lib.store.RefreshTokenStore;
+import com.wsc.auth.lib.cache.VerifiedTokenCache;
+import com.wsc.auth.lib.enums.TokenInvalidReason;
+import io.jsonwebtoken.security.SecurityException;
+import com.wsc.auth.lib.contract.UserInfoHydrator;
+import com.wsc.auth.lib.security.token.FastClaims;
+import com.wsc.auth.lib.security.token.TokenDraft;
+import com.wsc.auth.lib.security.token.TokenSlice;
+import com.wsc.auth.lib.security.token.ClaimWriter;
+import com.wsc.auth.lib.security.token.TokenSigner;
+import io.jsonwebtoken.security.InvalidKeyException;
+import com.wsc.auth.lib.revocation.TokenRevocationList;
+import com.wsc.auth.lib.security.token.HmacTokenVerifier;
+import com.wsc.auth.lib.revocation.SubjectInvalidationIndex;
+import com.wsc.auth.lib.exception.RefreshTokenReuseException;
+import com.wsc.auth.lib.security.authentication.AuthorityVocabulary;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.Date;
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.List;
+import java.util.Base64;
+import java.security.Key;
+import java.util.EnumMap;
+import java.util.Optional;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.stream.IntStream;
 
 @Service
 public class JwtServiceImpl implements JwtService {
 
-    private final SecretKey key;
+    private static final String TYPE_CLAIM = "type";
+    private static final String FAMILY_CLAIM = "fam";
+    private static final String ROLE_BITS_CLAIM = "rb";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String SCOPE_BITS_CLAIM = "sb";
+    private static final String SCOPES_CLAIM = "scp";
+    private static final String EXTRA_CLAIM = "ext";
+
+    private final String issuer;
+    private final ClaimNames claimNames;
+    private final boolean includeName;
+    private final boolean includeEmail;
+    private final AuthorityVocabulary roleVocabulary;
+    private final AuthorityVocabulary scopeVocabulary;
+    private final long clockSkewSeconds;
     private final long accessTokenExpiration;
     private final long refreshTokenExpiration;
+    private final VerifiedTokenCache tokenCache;
+    private final HmacTokenVerifier fastVerifier;
+    private final TokenSigner tokenSigner;
+    private final JwtParser parser;
+    private final Map<TokenType, JwtParser> typedParsers;
+
+    private volatile KeyRing keyRing;
+
+    private AuthMetrics metrics = AuthMetrics.NOOP;
+    private RefreshTokenStore refreshTokenStore;
+    private TokenRevocationList revocationList;
+    private SubjectInvalidationIndex subjectIndex;
+    private UserInfoHydrator userInfoHydrator;
 
     public JwtServiceImpl(JwtProperties properties) {
-        this.key = Keys.hmacShaKeyFor(properties.getSecret().getBytes(StandardCharsets.UTF_8));
+        this.keyRing = JwtKeys.keyRing(properties);
+        this.issuer = properties.getIssuer();
+        this.claimNames = properties.getClaims().getProfile() == ClaimProfile.COMPACT
+                ? ClaimNames.COMPACT
+                : ClaimNames.STANDARD;
+        this.includeName = properties.getClaims().isIncludeName();
+        this.includeEmail = properties.getClaims().isIncludeEmail();
+        this.roleVocabulary = new AuthorityVocabulary(properties.getAuthorities().getRoles());
+        this.scopeVocabulary = new AuthorityVocabulary(properties.getAuthorities().getScopes());
+        this.clockSkewSeconds = properties.getClockSkewSeconds();
         this.accessTokenExpiration = properties.getAccessTokenExpiration();
         this.refreshTokenExpiration = properties.getRefreshTokenExpiration();
+        this.tokenCache = properties.getCache().isEnabled()
+                ? new VerifiedTokenCache(properties.getCache().getMaximumSize())
+                : null;
+        this.fastVerifier = properties.isFastVerification()
+                ? new HmacTokenVerifier(keyRing)
+                : null;
+        this.tokenSigner = properties.isPooledSigning()
+                ? new TokenSigner(keyRing)
+                : null;
+
+        this.parser = this.parserBuilder().build();
+
+        // The compact profile still accepts standard tokens while they drain, so
+        // the type claim name varies and is checked after parsing instead.
+        Map<TokenType, JwtParser> parsers = new EnumMap<>(TokenType.class);
+        for (TokenType type : TokenType.values()) {
+            parsers.put(type, claimNames == ClaimNames.STANDARD
+                    ? this.parserBuilder().require(TYPE_CLAIM, type.name()).build()
+                    : parser);
+        }
+        this.typedParsers = parsers;
+    }
+
+    public KeyRing getKeyRing() {
+        return keyRing;
+    }
+
+    public void rotate(KeyRing keyRing) {
+        this.keyRing = keyRing;
+        if (fastVerifier != null) {
+            fastVerifier.rotate(keyRing);
+        }
+        if (tokenSigner != null) {
+            tokenSigner.rotate(keyRing);
+        }
+        if (tokenCache != null) {
+            tokenCache.invalidateAll();
+        }
+    }
+
+    public Optional<VerifiedTokenCache> getVerifiedTokenCache() {
+        return Optional.ofNullable(tokenCache);
+    }
+
+    public void setMetrics(AuthMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Optional<RefreshTokenStore> getRefreshTokenStore() {
+        return Optional.ofNullable(refreshTokenStore);
+    }
+
+    public void setRefreshTokenStore(RefreshTokenStore refreshTokenStore) {
+        this.refreshTokenStore = refreshTokenStore;
+    }
+
+    public Optional<TokenRevocationList> getRevocationList() {
+        return Optional.ofNullable(revocationList);
+    }
+
+    public void setRevocationList(TokenRevocationList revocationList) {
+        this.revocationList = revocationList;
+    }
+
+    public Optional<SubjectInvalidationIndex> getSubjectIndex() {
+        return Optional.ofNullable(subjectIndex);
+    }
+
+    public void setSubjectIndex(SubjectInvalidationIndex subjectIndex) {
+        this.subjectIndex = subjectIndex;
+    }
+
+    public Optional<UserInfoHydrator> getUserInfoHydrator() {
+        return Optional.ofNullable(userInfoHydrator);
+    }
+
+    public void setUserInfoHydrator(UserInfoHydrator userInfoHydrator) {
+        this.userInfoHydrator = userInfoHydrator;
     }
 
     @Override
-    public UserInfo extractUserInfo(String token) {
+    public TokenValidation validateToken(String token) {
+        long start = metrics.start();
+        TokenValidation validation = this.verify(token, null);
+        metrics.recordVerification(start, validation.reason());
+        return validation;
+    }
 
-        Claims claims = this.extractAllClaims(token);
+    @Override
+    public TokenValidation validateToken(String token, TokenType expectedType) {
+        long start = metrics.start();
+        TokenValidation validation = this.verify(token, expectedType);
+        metrics.recordVerification(start, validation.reason());
+        return validation;
+    }
 
-        return new UserInfo(
-                Long.parseLong(claims.getSubject()),
-                claims.get("name", String.class),
-                claims.get("email", String.class),
-                claims.get("role", String.class)
-        );
+    // Signature, lifetime, type, revocation and session checks all run here;
+    // only building the user info (authority sets, extra claims, hydration)
+    // is deferred to the first read of a field other than the id.
+    @Override
+    public TokenValidation validateTokenLazily(String token, TokenType expectedType) {
+        long start = metrics.start();
+        TokenValidation validation = this.verify(token, expectedType, true);
+        metrics.recordVerification(start, validation.reason());
+        return validation;
     }
 
+    // With fast verification on and no verified-token cache, a slice is
+    // verified without ever being copied into a String.
     @Override
-    public boolean isInvalidTokenValid(String token) {
-        try {
-            this.extractAllClaims(token);
+    public TokenValidation validateToken(TokenSlice token, TokenType expectedType) {
+        long start = metrics.start();
+        TokenValidation validation = this.verify(token, expectedType, false);
+        metrics.recordVerification(start, validation.reason());
+        return validation;
+    }
+
+    @Override
+    public TokenValidation validateTokenLazily(TokenSlice token, TokenType expectedType) {
+        long start = metrics.start();
+        TokenValidation validation = this.verify(token, expectedType, true);
+        metrics.recordVerification(start, validation.reason());
+        return validation;
+    }
+
+    @Override
+    public boolean revokeToken(String token) {
+        if (revocationList == null) {
+            throw new IllegalStateException("Token revocation is not enabled");
+        }
+
+        TokenValidation validation = this.verify(token, null);
+        if (!validation.valid() || validation.tokenId() == null || validation.expiresAt() == null) {
             return false;
+        }
+
+        revocationList.revoke(validation.tokenId(), validation.expiresAt());
+        return true;
+    }
+
+    @Override
+    public void revokeAllTokens(Long userId) {
+        if (subjectIndex == null) {
+            throw new IllegalStateException("Session invalidation is not enabled");
+        }
+        // "iat" has one-second precision, so the cutoff is rounded up: a token
+        // issued earlier in the current second must not survive the call.
+        subjectIndex.advance(userId, System.currentTimeMillis() / 1000 + 1);
+    }
+
+    private TokenValidation verify(String token, TokenType expectedType) {
+        return this.verify(token, expectedType, false);
+    }
+
+    private TokenValidation verify(CharSequence token, TokenType expectedType, boolean lazy) {
+        TokenValidation validation = this.verifySignedToken(token, expectedType, lazy);
+
+        if (!validation.valid()) {
+            return validation;
+        }
+        if (revocationList != null && validation.tokenId() != null
+                && revocationList.isRevoked(validation.tokenId())) {
+            return TokenValidation.invalid(TokenInvalidReason.REVOKED);
+        }
+        if (subjectIndex != null && validation.issuedAt() != null
+                && subjectIndex.isInvalidated(validation.userInfo().getId(), validation.issuedAt() / 1000)) {
+            return TokenValidation.invalid(TokenInvalidReason.REVOKED);
+        }
+        return validation;
+    }
+
+    private TokenValidation verifySignedToken(CharSequence token, TokenType expectedType, boolean lazy) {
+        JwtParser tokenParser = expectedType == null ? parser : typedParsers.get(expectedType);
+
+        if (tokenCache == null) {
+            return this.validate(token, tokenParser, expectedType, lazy);
+        }
+
+        String key = token.toString();
+        TokenValidation cached = tokenCache.get(key);
+        if (cached != null) {
+            return expectedType == null || cached.type() == expectedType
+                    ? cached
+                    : TokenValidation.invalid(TokenInvalidReason.WRONG_TYPE);
+        }
+
+        TokenValidation validation = this.validate(token, tokenParser, expectedType, lazy);
+        tokenCache.put(key, validation);
+        return validation;
+    }
+
+    private TokenValidation validate(CharSequence token, JwtParser tokenParser, TokenType expectedType, boolean lazy) {
+
+        if (fastVerifier != null) {
+            FastClaims fastClaims = fastVerifier.verify(token);
+            if (fastClaims != null) {
+                return this.validate(fastClaims, expectedType, lazy);
+            }
+        }
+
+        Claims claims;
+        try {
+            claims = tokenParser.parseSignedClaims(token.toString()).getPayload();
+        } catch (IncorrectClaimException e) {
+            return TokenValidation.invalid(TYPE_CLAIM.equals(e.getClaimName())
+                    ? TokenInvalidReason.WRONG_TYPE
+                    : TokenInvalidReason.INVALID_CLAIMS);
+        } catch (ExpiredJwtException e) {
+            return TokenValidation.invalid(TokenInvalidReason.EXPIRED);
+        } catch (SecurityException e) {
+            return TokenValidation.invalid(TokenInvalidReason.INVALID_SIGNATURE);
+        } catch (MalformedJwtException e) {
+            return TokenValidation.invalid(TokenInvalidReason.MALFORMED);
+        } catch (UnsupportedJwtException e) {
+            return TokenValidation.invalid(TokenInvalidReason.UNSUPPORTED);
         } catch (JwtException | IllegalArgumentException e) {
-            return true;
+            return TokenValidation.invalid(TokenInvalidReason.INVALID_CLAIMS);
         }
+
+        TokenType type = this.resolveType(claims);
+        if (type == null || claims.getSubject() == null) {
+            return TokenValidation.invalid(TokenInvalidReason.INVALID_CLAIMS);
+        }
+        if (expectedType != null && type != expectedType) {
+            return TokenValidation.invalid(TokenInvalidReason.WRONG_TYPE);
+        }
+        if (claims.getIssuer() != null && !issuer.equals(claims.getIssuer())) {
+            return TokenValidation.invalid(TokenInvalidReason.INVALID_CLAIMS);
+        }
+
+        UserInfo userInfo;
+        try {
+            userInfo = lazy
+                    ? new LazyUserInfo(Long.parseLong(claims.getSubject()), () -> this.toUserInfo(claims))
+                    : this.toUserInfo(claims);
+        } catch (NumberFormatException e) {
+            return TokenValidation.invalid(TokenInvalidReason.INVALID_CLAIMS);
+        }
+
+        Date expiration = claims.getExpiration();
+        Date issuedAt = claims.getIssuedAt();
+
+        return TokenValidation.valid(
+                type,
+                claims.getSubject(),
+                userInfo,
+                expiration != null ? expiration.getTime() : null,
+                claims.getId(),
+                claims.get(FAMILY_CLAIM, String.class),
+                issuedAt != null ? issuedAt.getTime() : null
+        );
+    }
+
+    // Mirrors the checks jjwt and the method above apply, in the same order,
+    // so both paths give the same result for the same token.
+    private TokenValidation validate(FastClaims claims, TokenType expectedType, boolean lazy) {
+        long now = System.currentTimeMillis();
+        long skewMillis = clockSkewSeconds * 1000;
+
+        if (claims.hasExpiration() && now - skewMillis > claims.expiration() * 1000) {
+            return TokenValidation.invalid(TokenInvalidReason.EXPIRED);
+        }
+        if (claims.hasNotBefore() && now + skewMillis < claims.notBefore() * 1000) {
+            return TokenValidation.invalid(TokenInvalidReason.INVALID_CLAIMS);
+        }
+
+        boolean compact = claimNames == ClaimNames.COMPACT;
+        boolean issuerMismatch = compact
+                ? claims.issuer() != null && !issuer.equals(claims.issuer())
+                : !issuer.equals(claims.issuer());
+        if (issuerMismatch) {
+            return TokenValidation.invalid(TokenInvalidReason.INVALID_CLAIMS);
+        }
+
+        String rawType = claims.type(compact);
+        if (!compact && expectedType != null && !expectedType.name().equals(rawType)) {
+            return TokenValidation.invalid(rawType == null
+                    ? TokenInvalidReason.INVALID_CLAIMS
+                    : TokenInvalidReason.WRONG_TYPE);
+        }
+
+        TokenType type = this.resolveType(rawType);
+        if (type == null || claims.subject() == null) {
+            return TokenValidation.invalid(TokenInvalidReason.INVALID_CLAIMS);
+        }
+        if (expectedType != null && type != expectedType) {
+            return TokenValidation.invalid(TokenInvalidReason.WRONG_TYPE);
+        }
+
+        Long id;
+        try {
+            id = Long.parseLong(claims.subject());
+        } catch (NumberFormatException e) {
+            return TokenValidation.invalid(TokenInvalidReason.INVALID_CLAIMS);
+        }
+
+        UserInfo userInfo = lazy
+                ? new LazyUserInfo(id, () -> this.toUserInfo(claims, id))
+                : this.toUserInfo(claims, id);
+
+        return TokenValidation.valid(
+                type,
+                claims.subject(),
+                userInfo,
+                claims.hasExpiration() ? claims.expiration() * 1000 : null,
+                claims.tokenId(),
+                claims.familyId(),
+                claims.hasIssuedAt() ? claims.issuedAt() * 1000 : null
+        );
+    }
+
+    @Override
+    public UserInfo extractUserInfo(String token) {
+        return this.requireValid(token, null).userInfo();
+    }
+
+    @Override
+    public boolean isInvalidTokenValid(String token) {
+        return !this.verify(token, null).valid();
     }
 
     @Override
     public boolean isAccessToken(String token) {
-        Claims claims = this.extractAllClaims(token);
-        return TokenType.ACCESS.name()
-                .equals(claims.get("type", String.class));
+        return this.requireValid(token, null).type() == TokenType.ACCESS;
     }
 
     @Override
     public boolean isRefreshToken(String token) {
-        Claims claims = this.extractAllClaims(token);
-        return TokenType.REFRESH.name()
-                .equals(claims.get("type", String.class));
+        return this.requireValid(token, null).type() == TokenType.REFRESH;
+    }
+
+    // Every public entry point that reads a token goes through verify, like
+    // validateToken, so revoked tokens and revokeAllTokens cutoffs are
+    // rejected everywhere rather than only by the filters.
+    private TokenValidation requireValid(String token, TokenType expectedType) {
+        TokenValidation validation = this.verify(token, expectedType);
+
+        if (validation.valid()) {
+            return validation;
+        }
+        if (validation.reason() == TokenInvalidReason.WRONG_TYPE && expectedType == TokenType.REFRESH) {
+            throw new JwtException("Token inválido: não é refresh token");
+        }
+        throw new JwtException("Invalid token: " + validation.reason());
     }
 
     @Override
     public String generateToken(JwtUser user, Date date) {
-        Date expiration = new Date(date.getTime() + accessTokenExpiration);
-
-        return Jwts.builder()
-                .subject(user.getId().toString())
-                .claim("name", user.getName())
-                .claim("email", user.getEmail())
-                .claim("role", user.getRole())
-                .claim("type", TokenType.ACCESS.name())
-                .issuedAt(date)
-                .expiration(expiration)
-                .issuer("auth-service")
-                .signWith(key)
-                .compact();
+        return this.sign(user, TokenType.ACCESS, date, this.newTokenId(), null);
     }
 
     @Override
     public String generateRefreshToken(JwtUser user, Date date) {
-        Date expiration = new Date(date.getTime() + refreshTokenExpiration);
+        if (subjectIndex != null) {
+            date = this.atOrAfterCutoff(user.getId(), date);
+        }
+        String tokenId = this.newTokenId();
+        String token = this.sign(user, TokenType.REFRESH, date, tokenId, tokenId);
 
-        return Jwts.builder()
-                .subject(user.getId().toString())
-                .claim("name", user.getName())
-                .claim("email", user.getEmail())
-                .claim("role", user.getRole())
-                .claim("type", TokenType.REFRESH.name())
-                .issuedAt(date)
-                .expiration(expiration)
-                .issuer("auth-service")
-                .signWith(key)
-                .compact();
+        if (refreshTokenStore != null) {
+            refreshTokenStore.register(tokenId, tokenId, date.getTime() + refreshTokenExpiration);
+        }
+        return token;
     }
 
+    // Every token is signed with one timestamp: the date, moved up to the
+    // latest revokeAllTokens cutoff still ahead among the users, so the batch
+    // reports the iat the tokens carry. Drafts come from the per-thread pool;
+    // parallel batches run on the common fork-join pool.
     @Override
-    public String generateTokenWithRefreshToken(String refreshToken) {
-        Claims claims = this.extractAllClaims(refreshToken);
+    public TokenBatch generateTokenPairs(Collection<? extends JwtUser> users, Date date, boolean parallel) {
+        List<? extends JwtUser> batch = List.copyOf(users);
+        String[] accessTokens = new String[batch.size()];
+        String[] refreshTokens = new String[batch.size()];
+
+        Date issuedAt = date;
+        if (subjectIndex != null) {
+            for (JwtUser user : batch) {
+                issuedAt = this.atOrAfterCutoff(user.getId(), issuedAt);
+            }
+        }
+
+        Date signedAt = issuedAt;
+        IntStream indexes = IntStream.range(0, batch.size());
+        (parallel ? indexes.parallel() : indexes).forEach(i -> {
+            JwtUser user = batch.get(i);
+            accessTokens[i] = this.generateToken(user, signedAt);
+            refreshTokens[i] = this.generateRefreshToken(user, signedAt);
+        });
 
-        if (!TokenType.REFRESH.name().equals(claims.get("type", String.class))) {
+        return new TokenBatch(
+                accessTokens,
+                refreshTokens,
+                signedAt.getTime(),
+                signedAt.getTime() + accessTokenExpiration,
+                signedAt.getTime() + refreshTokenExpiration
+        );
+    }
+
+    public String rotateRefreshToken(TokenValidation validation, Date date) {
+        if (!validation.isRefreshToken()) {
             throw new JwtException("Token inválido: não é refresh token");
         }
+        return this.rotateRefreshToken(validation.userInfo(), validation.tokenId(), validation.familyId(), date);
+    }
 
-        UserInfo userInfo = this.extractUserInfo(refreshToken);
+    // Does not rotate, but with rotation enabled only the current token of a
+    // live family may mint access tokens; a rotated or revoked one may not.
+    @Override
+    public String generateTokenWithRefreshToken(String refreshToken) {
+        TokenValidation validation = this.requireValid(refreshToken, TokenType.REFRESH);
 
-        Date now = new Date();
-        Date expiration = new Date(now.getTime() + accessTokenExpiration);
+        if (refreshTokenStore != null) {
+            if (validation.tokenId() == null || validation.familyId() == null) {
+                throw new JwtException("Refresh token is not tracked");
+            }
+            if (!refreshTokenStore.isCurrent(validation.tokenId(), validation.familyId())) {
+                throw new JwtException("Refresh token is no longer active");
+            }
+        }
 
-        return Jwts.builder()
-                .subject(claims.getSubject())
-                .claim("name", userInfo.getName())
-                .claim("email", userInfo.getEmail())
-                .claim("role", userInfo.getRole())
-                .claim("type", TokenType.ACCESS.name())
-                .issuedAt(now)
-                .expiration(expiration)
-                .issuer("auth-service")
-                .signWith(key)
-                .compact();
+        return this.sign(validation.userInfo(), TokenType.ACCESS, new Date(), this.newTokenId(), null);
     }
 
     @Override
     public String generateNewRefreshToken(String refreshToken) {
-        Claims claims = this.extractAllClaims(refreshToken);
+        return this.rotateRefreshToken(this.requireValid(refreshToken, TokenType.REFRESH), new Date());
+    }
 
-        if (!TokenType.REFRESH.name().equals(claims.get("type", String.class))) {
-            throw new JwtException("Token inválido: não é refresh token");
+    private String rotateRefreshToken(JwtUser user, String tokenId, String familyId, Date date) {
+        String newTokenId = this.newTokenId();
+
+        if (refreshTokenStore == null) {
+            return this.sign(user, TokenType.REFRESH, date, newTokenId, familyId != null ? familyId : newTokenId);
         }
 
-        UserInfo userInfo = this.extractUserInfo(refreshToken);
+        if (tokenId == null || familyId == null) {
+            throw new JwtException("Refresh token is not tracked");
+        }
 
-        Date now = new Date();
-        Date expiration = new Date(now.getTime() + refreshTokenExpiration);
+        RotationResult result = refreshTokenStore.rotate(tokenId, familyId, newTokenId, date.getTime() + refreshTokenExpiration);
 
-        return Jwts.builder()
-                .subject(claims.getSubject())
-                .claim("name", userInfo.getName())
-                .claim("email", userInfo.getEmail())
-                .claim("role", userInfo.getRole())
-                .claim("type", TokenType.REFRESH.name())
-                .issuedAt(now)
-                .expiration(expiration)
-                .issuer("auth-service")
-                .signWith(key)
-                .compact();
+        if (result == RotationResult.REUSED) {
+            throw new RefreshTokenReuseException(familyId);
+        }
+        if (result != RotationResult.ROTATED) {
+            throw new JwtException("Refresh token is no longer active");
+        }
+
+        return this.sign(user, TokenType.REFRESH, date, newTokenId, familyId);
+    }
+
+    private String newTokenId() {
+        UUID uuid = UUID.randomUUID();
+        if (claimNames == ClaimNames.STANDARD) {
+            return uuid.toString();
+        }
+
+        // Same 128 random bits as the UUID in 22 characters instead of 36.
+        byte[] bytes = ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
     }
 
-    private Claims extractAllClaims(String token) {
+    private String sign(JwtUser user, TokenType type, Date issuedAt, String tokenId, String familyId) {
+        long start = metrics.start();
+
+        if (subjectIndex != null) {
+            issuedAt = this.atOrAfterCutoff(user.getId(), issuedAt);
+        }
+
+        long ttl = type == TokenType.ACCESS ? accessTokenExpiration : refreshTokenExpiration;
+        long expiration = issuedAt.getTime() + ttl;
+
+        JwtKey key = keyRing.active();
+        if (!key.canSign()) {
+            throw new IllegalStateException("Token issuance is disabled in verify-only mode");
+        }
+
+        // Extra claims can hold any value, so they are left to jjwt's serializer.
+        TokenDraft draft = tokenSigner != null && user.getClaims().isEmpty() ? tokenSigner.draft() : null;
+
+        String token = draft != null
+                ? this.sign(draft, user, type, issuedAt.getTime(), expiration, tokenId, familyId)
+                : this.sign(key, user, type, issuedAt, new Date(expiration), tokenId, familyId);
+
+        metrics.recordSigning(start, type);
+        return token;
+    }
 
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // A cutoff still in the future was set by revokeAllTokens moments ago, so
+    // anything issued now comes after the call; starting it at the cutoff
+    // keeps a login right after the call valid.
+    private Date atOrAfterCutoff(Long userId, Date issuedAt) {
+        long cutoff = subjectIndex.minimumIssuedAt(userId) * 1000;
+        if (cutoff > issuedAt.getTime() && cutoff > System.currentTimeMillis()) {
+            return new Date(cutoff);
+        }
+        return issuedAt;
+    }
+
+    private String sign(TokenDraft draft, JwtUser user, TokenType type, long issuedAt, long expiration, String tokenId, String familyId) {
+        try (draft) {
+            draft.string(Claims.SUBJECT, user.getId().toString());
+            this.writeClaims(draft, user, type);
+            draft.number(Claims.ISSUED_AT, issuedAt / 1000);
+            draft.number(Claims.EXPIRATION, expiration / 1000);
+
+            if (claimNames == ClaimNames.STANDARD) {
+                draft.string(Claims.ISSUER, issuer);
+            }
+
+            draft.string(Claims.ID, tokenId);
+            draft.string(FAMILY_CLAIM, familyId);
+
+            return draft.sign();
+        }
+    }
+
+    private String sign(JwtKey key, JwtUser user, TokenType type, Date issuedAt, Date expiration, String tokenId, String familyId) {
+        JwtBuilder builder = Jwts.builder()
+                .subject(user.getId().toString());
+
+        this.writeClaims(new BuilderClaimWriter(builder), user, type);
+
+        if (!user.getClaims().isEmpty()) {
+            builder.claim(EXTRA_CLAIM, user.getClaims());
+        }
+
+        builder.issuedAt(issuedAt)
+                .expiration(expiration);
+
+        // Every verifier already knows the issuer it trusts, so the compact
+        // profile checks it only when a token carries one.
+        if (claimNames == ClaimNames.STANDARD) {
+            builder.issuer(issuer);
+        }
+
+        if (tokenId != null) {
+            builder.id(tokenId);
+        }
+        if (familyId != null) {
+            builder.claim(FAMILY_CLAIM, familyId);
+        }
+
+        if (key.kid() != null) {
+            builder.header().keyId(key.kid());
+        }
+
+        return key.algorithm() == null
+                ? builder.signWith(key.signingKey()).compact()
+                : builder.signWith(key.signingKey(), key.algorithm()).compact();
+    }
+
+    private void writeClaims(ClaimWriter claims, JwtUser user, TokenType type) {
+        if (includeName) {
+            claims.string(claimNames.name(), user.getName());
+        }
+        if (includeEmail) {
+            claims.string(claimNames.email(), user.getEmail());
+        }
+
+        claims.string(claimNames.role(), user.getRole());
+
+        // A single role is already carried by the role claim; tokens for such
+        // users stay identical to the ones issued before roles existed.
+        Set<String> roles = user.getRoles();
+        if (!roles.isEmpty() && !(roles.size() == 1 && roles.contains(user.getRole()))) {
+            this.writeAuthorities(claims, roles, roleVocabulary, ROLE_BITS_CLAIM, ROLES_CLAIM);
+        }
+        this.writeAuthorities(claims, user.getScopes(), scopeVocabulary, SCOPE_BITS_CLAIM, SCOPES_CLAIM);
+
+        claims.string(claimNames.type(), claimNames.typeValue(type));
+    }
+
+    private UserInfo toUserInfo(Claims claims) {
+        Set<String> roles = this.readAuthorities(claims, roleVocabulary, ROLE_BITS_CLAIM, ROLES_CLAIM);
+        Set<String> scopes = this.readAuthorities(claims, scopeVocabulary, SCOPE_BITS_CLAIM, SCOPES_CLAIM);
+
+        Map<?, ?> extra = claims.get(EXTRA_CLAIM, Map.class);
+
+        return this.toUserInfo(
+                Long.parseLong(claims.getSubject()),
+                this.claim(claims, claimNames.name(), ClaimNames.STANDARD.name()),
+                this.claim(claims, claimNames.email(), ClaimNames.STANDARD.email()),
+                this.claim(claims, claimNames.role(), ClaimNames.STANDARD.role()),
+                roles,
+                scopes != null ? scopes : Set.of(),
+                extra != null ? this.toExtraClaims(extra) : Map.of()
+        );
+    }
+
+    private UserInfo toUserInfo(FastClaims claims, Long id) {
+        boolean compact = claimNames == ClaimNames.COMPACT;
+
+        return this.toUserInfo(
+                id,
+                claims.name(compact),
+                claims.email(compact),
+                claims.role(compact),
+                claims.hasRoleBits() ? roleVocabulary.decode(claims.roleBits()) : null,
+                claims.hasScopeBits() ? scopeVocabulary.decode(claims.scopeBits()) : Set.of(),
+                Map.of()
+        );
+    }
+
+    private UserInfo toUserInfo(Long id, String name, String email, String role, Set<String> roles, Set<String> scopes, Map<String, Object> extraClaims) {
+
+        // Only fields the profile leaves out are hydrated; the role always
+        // comes from the signed token. A cache miss blocks on the hydrator, so
+        // reactive callers must validate off the event loop.
+        boolean missing = (name == null && !includeName) || (email == null && !includeEmail);
+        if (missing && userInfoHydrator != null) {
+            JwtUser user = userInfoHydrator.load(id);
+            if (user != null) {
+                name = name != null ? name : user.getName();
+                email = email != null ? email : user.getEmail();
+            }
+        }
+
+        return new UserInfo(id, name, email, role, roles, scopes, extraClaims);
+    }
+
+    private void writeAuthorities(ClaimWriter claims, Set<String> values, AuthorityVocabulary vocabulary, String bitsClaim, String namesClaim) {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        long bits = vocabulary.encode(values);
+        if (bits != 0) {
+            claims.number(bitsClaim, bits);
+        }
+
+        List<String> unknown = vocabulary.unknown(values);
+        if (!unknown.isEmpty()) {
+            claims.strings(namesClaim, unknown);
+        }
+    }
+
+    // Null when the token has neither claim, so UserInfo falls back to the
+    // single role claim.
+    private Set<String> readAuthorities(Claims claims, AuthorityVocabulary vocabulary, String bitsClaim, String namesClaim) {
+        Object bits = claims.get(bitsClaim);
+        List<?> names = claims.get(namesClaim, List.class);
+
+        if (bits == null && names == null) {
+            return null;
+        }
+
+        Set<String> decoded = bits instanceof Number number ? vocabulary.decode(number.longValue()) : Set.of();
+        if (names == null || names.isEmpty()) {
+            return decoded;
+        }
+
+        Set<String> values = new LinkedHashSet<>(decoded);
+        for (Object name : names) {
+            values.add(String.valueOf(name));
+        }
+        return Collections.unmodifiableSet(values);
+    }
+
+    private Map<String, Object> toExtraClaims(Map<?, ?> extra) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        extra.forEach((key, value) -> claims.put(String.valueOf(key), value));
+        return Collections.unmodifiableMap(claims);
+    }
+
+    private String claim(Claims claims, String name, String standardName) {
+        String value = claims.get(name, String.class);
+        if (value == null && !name.equals(standardName)) {
+            value = claims.get(standardName, String.class);
+        }
+        return value;
+    }
+
+    private TokenType resolveType(Claims claims) {
+        return this.resolveType(this.claim(claims, claimNames.type(), TYPE_CLAIM));
+    }
+
+    // The compact values are only known to the compact profile; the standard
+    // profile's typed parsers require the full names, and so does this.
+    private TokenType resolveType(String type) {
+        boolean compact = claimNames == ClaimNames.COMPACT;
+        if (TokenType.ACCESS.name().equals(type) || compact && ClaimNames.COMPACT.access().equals(type)) {
+            return TokenType.ACCESS;
+        }
+        if (TokenType.REFRESH.name().equals(type) || compact && ClaimNames.COMPACT.refresh().equals(type)) {
+            return TokenType.REFRESH;
+        }
+        return null;
+    }
+
+    private JwtParserBuilder parserBuilder() {
+        JwtParserBuilder builder = Jwts.parser()
+                .keyLocator(new KeyRingLocator())
+                .clockSkewSeconds(clockSkewSeconds);
+
+        return claimNames == ClaimNames.STANDARD
+                ? builder.requireIssuer(issuer)
+                : builder;
+    }
+
+    private record BuilderClaimWriter(JwtBuilder builder) implements ClaimWriter {
+
+        @Override
+        public void string(String name, String value) {
+            builder.claim(name, value);
+        }
+
+        @Override
+        public void number(String name, long value) {
+            builder.claim(name, value);
+        }
+
+        @Override
+        public void strings(String name, Collection<String> values) {
+            builder.claim(name, values);
+        }
+    }
+
+    private record ClaimNames(String type, String name, String email, String role, String access, String refresh) {
+
+        private static final ClaimNames STANDARD = new ClaimNames(TYPE_CLAIM, "name", "email", "role", "ACCESS", "REFRESH");
+        private static final ClaimNames COMPACT = new ClaimNames("t", "n", "e", "r", "A", "R");
+
+        private String typeValue(TokenType type) {
+            return type == TokenType.ACCESS ? access : refresh;
+        }
+    }
+
+    private final class KeyRingLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            JwtKey key = keyRing.find(header.getKeyId());
+            if (key == null) {
+                throw new InvalidKeyException("Unknown signing key: " + header.getKeyId());
+            }
+            return key.verificationKey();
+        }
     }
 }
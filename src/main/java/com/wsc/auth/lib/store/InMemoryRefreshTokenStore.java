@@ -0,0 +1,163 @@
+package com.wsc.auth.lib.store;
+
+import com.wsc.auth.lib.enums.RotationResult;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    private static final long BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Shard[] shards;
+    private final int mask;
+
+    public InMemoryRefreshTokenStore(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be at least 1");
+        }
+        int size = 1;
+        while (size < shardCount) {
+            size <<= 1;
+        }
+
+        this.shards = new Shard[size];
+        this.mask = size - 1;
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard(bucketOf(now));
+        }
+    }
+
+    @Override
+    public void register(String tokenId, String familyId, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (expiresAt <= now) {
+            return;
+        }
+        Shard shard = shardFor(familyId);
+
+        shard.sweep(now);
+        shard.families.put(familyId, new Family(tokenId, expiresAt, false));
+        shard.track(familyId, expiresAt);
+    }
+
+    @Override
+    public RotationResult rotate(String tokenId, String familyId, String newTokenId, long newExpiresAt) {
+        long now = System.currentTimeMillis();
+        Shard shard = shardFor(familyId);
+        RotationResult[] result = new RotationResult[1];
+
+        shard.sweep(now);
+        shard.families.computeIfPresent(familyId, (id, family) -> {
+            if (family.revoked() || family.expiresAt() <= now) {
+                result[0] = family.revoked() ? RotationResult.REUSED : RotationResult.UNKNOWN;
+                return family;
+            }
+            if (!family.currentTokenId().equals(tokenId)) {
+                result[0] = RotationResult.REUSED;
+                return new Family(family.currentTokenId(), family.expiresAt(), true);
+            }
+            result[0] = RotationResult.ROTATED;
+            return new Family(newTokenId, newExpiresAt, false);
+        });
+
+        if (result[0] == null) {
+            return RotationResult.UNKNOWN;
+        }
+        if (result[0] == RotationResult.ROTATED) {
+            shard.track(familyId, newExpiresAt);
+        }
+        return result[0];
+    }
+
+    @Override
+    public boolean isCurrent(String tokenId, String familyId) {
+        Family family = shardFor(familyId).families.get(familyId);
+        return family != null
+                && !family.revoked()
+                && family.expiresAt() > System.currentTimeMillis()
+                && family.currentTokenId().equals(tokenId);
+    }
+
+    // Revoked families are kept until their last token expires, so a replay
+    // is still reported as reuse rather than as an unknown token.
+    @Override
+    public void revokeFamily(String familyId) {
+        shardFor(familyId).families.computeIfPresent(familyId,
+                (id, family) -> new Family(family.currentTokenId(), family.expiresAt(), true));
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.families.size();
+        }
+        return size;
+    }
+
+    private Shard shardFor(String familyId) {
+        int hash = familyId.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    private static long bucketOf(long millis) {
+        return millis / BUCKET_MILLIS;
+    }
+
+    private record Family(String currentTokenId, long expiresAt, boolean revoked) {
+    }
+
+    // Families are indexed by the minute their token expires. A sweep only
+    // visits the buckets that have elapsed since the previous one, so its cost
+    // is proportional to what expired rather than to the size of the shard.
+    private static final class Shard {
+
+        private final ConcurrentHashMap<String, Family> families = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, Set<String>> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong sweptBucket;
+
+        private Shard(long bucket) {
+            this.sweptBucket = new AtomicLong(bucket);
+        }
+
+        private void track(String familyId, long expiresAt) {
+            buckets.computeIfAbsent(bucketOf(expiresAt), b -> ConcurrentHashMap.newKeySet()).add(familyId);
+        }
+
+        private void sweep(long now) {
+            long current = bucketOf(now);
+            long swept = sweptBucket.get();
+
+            if (swept >= current || !sweptBucket.compareAndSet(swept, current)) {
+                return;
+            }
+
+            // After a long idle period it is cheaper to look at the buckets that
+            // exist than to step through every elapsed minute.
+            if (current - swept > buckets.size()) {
+                for (Long bucket : buckets.keySet()) {
+                    if (bucket < current) {
+                        expire(bucket, now);
+                    }
+                }
+                return;
+            }
+            for (long bucket = swept; bucket < current; bucket++) {
+                expire(bucket, now);
+            }
+        }
+
+        private void expire(long bucket, long now) {
+            Set<String> expired = buckets.remove(bucket);
+            if (expired == null) {
+                return;
+            }
+            for (String familyId : expired) {
+                families.computeIfPresent(familyId, (id, family) -> family.expiresAt() <= now ? null : family);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.wsc.auth.lib.store;
+
+import com.wsc.auth.lib.enums.RotationResult;
+
+public interface RefreshTokenStore {
+
+    // Starts a new family whose current refresh token is tokenId.
+    void register(String tokenId, String familyId, long expiresAt);
+
+    // Replaces tokenId with newTokenId as the current token of the family.
+    // Presenting a token that is no longer current revokes the whole family
+    // and returns REUSED.
+    RotationResult rotate(String tokenId, String familyId, String newTokenId, long newExpiresAt);
+
+    // True while tokenId is the current token of a live, unrevoked family.
+    boolean isCurrent(String tokenId, String familyId);
+
+    void revokeFamily(String familyId);
+}
@@ -1,10 +1,38 @@
 package com.wsc.auth.lib.config;
 
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import com.wsc.auth.lib.model.UserInfo;
+import reactor.core.scheduler.Schedulers;
 import com.wsc.auth.lib.service.JwtService;
+import com.wsc.auth.lib.metrics.AuthMetrics;
+import com.wsc.auth.lib.contract.UserInfoHydrator;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.wsc.auth.lib.metrics.MicrometerAuthMetrics;
 import com.wsc.auth.lib.service.AuthenticationService;
+import com.wsc.auth.lib.ratelimit.LoginAttemptLimiter;
+import org.springframework.security.core.Authentication;
+import com.wsc.auth.lib.executor.BoundedAuthTaskExecutor;
+import com.wsc.auth.lib.security.password.PasswordEncoders;
+import com.wsc.auth.lib.executor.VirtualThreadAuthTaskExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.wsc.auth.lib.security.filter.JwtAuthenticationFilter;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import com.wsc.auth.lib.security.filter.JwtAuthenticationWebFilter;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import com.wsc.auth.lib.security.filter.JwtServerAuthenticationConverter;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Base64;
+import java.security.KeyPair;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
@@ -40,4 +68,193 @@ public class JwtAutoConfigurationTest {
             assertThat(context).hasSingleBean(PasswordEncoder.class);
         });
     }
+
+    @Test
+    void shouldNotCreateMetricsWithoutMeterRegistry() {
+        contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean(AuthMetrics.class);
+        });
+    }
+
+    @Test
+    void shouldRecordVerificationMetricsWhenMeterRegistryIsPresent() {
+        contextRunner
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .run(context -> {
+                    assertThat(context).hasSingleBean(MicrometerAuthMetrics.class);
+
+                    context.getBean(JwtService.class).validateToken("invalid-token");
+
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+                    assertThat(registry.get("wsc.auth.jwt.verification.failures")
+                            .tag("reason", "malformed")
+                            .counter()
+                            .count()).isEqualTo(1.0);
+                });
+    }
+
+    @Test
+    void shouldRunHashingAndLookupsOnSeparateVirtualThreadExecutorsWhenEnabled() {
+        contextRunner
+                .withPropertyValues(
+                        "wsc.auth.jwt.virtual-threads=true",
+                        "wsc.auth.jwt.hashing.max-concurrency=2",
+                        "wsc.auth.jwt.lookup.max-concurrency=32"
+                )
+                .run(context -> {
+                    assertThat(context.getBean("authHashingExecutor")).isInstanceOf(VirtualThreadAuthTaskExecutor.class);
+                    assertThat(context.getBean("authLookupExecutor")).isInstanceOf(VirtualThreadAuthTaskExecutor.class);
+                    assertThat(context.getBean("authHashingExecutor")).isNotSameAs(context.getBean("authLookupExecutor"));
+                });
+
+        contextRunner.run(context -> {
+            assertThat(context.getBean("authHashingExecutor")).isInstanceOf(BoundedAuthTaskExecutor.class);
+            assertThat(context.getBean("authLookupExecutor")).isInstanceOf(BoundedAuthTaskExecutor.class);
+        });
+    }
+
+    @Test
+    void shouldRegisterAttemptLimiterOnlyWhenEnabled() {
+        contextRunner
+                .withPropertyValues("wsc.auth.jwt.rate-limit.enabled=true")
+                .run(context -> assertThat(context).hasSingleBean(LoginAttemptLimiter.class));
+
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(LoginAttemptLimiter.class));
+    }
+
+    @Test
+    void shouldNotRegisterIssuingBeansInVerifyOnlyMode() {
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+
+        new ApplicationContextRunner()
+                .withUserConfiguration(JwtAutoConfiguration.class)
+                .withPropertyValues(
+                        "wsc.auth.jwt.mode=verify-only",
+                        "wsc.auth.jwt.algorithm=ES256",
+                        "wsc.auth.jwt.public-key=" + Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded())
+                )
+                .run(context -> {
+                    assertThat(context).hasSingleBean(JwtService.class);
+                    assertThat(context).doesNotHaveBean(AuthenticationService.class);
+                    assertThat(context).doesNotHaveBean(PasswordEncoder.class);
+                });
+    }
+
+    @Test
+    void shouldUpgradeLegacyBcryptHashesWhenAnotherEncoderIsSelected() {
+        String legacyHash = new BCryptPasswordEncoder(4).encode("123456");
+
+        contextRunner
+                .withPropertyValues(
+                        "wsc.auth.jwt.password.encoder=pbkdf2",
+                        "wsc.auth.jwt.password.pbkdf2.iterations=1000"
+                )
+                .run(context -> {
+                    PasswordEncoder encoder = context.getBean(PasswordEncoder.class);
+                    String hash = encoder.encode("123456");
+
+                    assertThat(hash).startsWith("{pbkdf2}");
+                    assertThat(encoder.matches("123456", hash)).isTrue();
+                    assertThat(encoder.upgradeEncoding(hash)).isFalse();
+
+                    assertThat(encoder.matches("123456", legacyHash)).isTrue();
+                    assertThat(encoder.upgradeEncoding(legacyHash)).isTrue();
+                });
+    }
+
+    @Test
+    void shouldCalibrateBcryptStrengthFromTheConfiguredFloor() {
+        contextRunner
+                .withPropertyValues(
+                        "wsc.auth.jwt.password.bcrypt.strength=4",
+                        "wsc.auth.jwt.password.calibration.enabled=true",
+                        "wsc.auth.jwt.password.calibration.target-millis=0"
+                )
+                .run(context -> {
+                    PasswordEncoder encoder = context.getBean(PasswordEncoder.class);
+
+                    assertThat(encoder).isInstanceOf(BCryptPasswordEncoder.class);
+                    assertThat(encoder.encode("123456")).startsWith("$2a$04$");
+                    assertThat(context.getBean(JwtProperties.class).getPassword().getBcrypt().getStrength()).isEqualTo(4);
+                });
+    }
+
+    @Test
+    void shouldCalibrateWithoutRewritingBoundProperties() {
+        contextRunner
+                .withPropertyValues(
+                        "wsc.auth.jwt.password.bcrypt.strength=4",
+                        "wsc.auth.jwt.password.calibration.enabled=true",
+                        "wsc.auth.jwt.password.calibration.target-millis=20"
+                )
+                .run(context -> {
+                    JwtProperties.Password password = context.getBean(JwtProperties.class).getPassword();
+
+                    assertThat(context.getBean(PasswordEncoder.class).encode("123456")).doesNotStartWith("$2a$04$");
+                    assertThat(password.getBcrypt().getStrength()).isEqualTo(4);
+                    assertThat(PasswordEncoders.calibrate(password, 0).bcryptStrength()).isEqualTo(4);
+                });
+    }
+
+    @Test
+    void shouldRegisterServletFilterInServletApplications() {
+        new WebApplicationContextRunner()
+                .withUserConfiguration(JwtAutoConfiguration.class)
+                .withPropertyValues("wsc.auth.jwt.secret=test-secret-key-12345678901234567890")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(JwtAuthenticationFilter.class);
+                    assertThat(context).doesNotHaveBean(JwtAuthenticationWebFilter.class);
+                });
+    }
+
+    @Test
+    void shouldRegisterWebFilterInReactiveApplications() {
+        new ReactiveWebApplicationContextRunner()
+                .withUserConfiguration(JwtAutoConfiguration.class)
+                .withPropertyValues("wsc.auth.jwt.secret=test-secret-key-12345678901234567890")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(JwtAuthenticationWebFilter.class);
+                    assertThat(context).hasSingleBean(JwtServerAuthenticationConverter.class);
+                    assertThat(context).doesNotHaveBean(JwtAuthenticationFilter.class);
+                });
+    }
+
+    @Test
+    void shouldNeverHydrateOnNonBlockingThreadsInReactiveApplications() {
+        List<Boolean> nonBlocking = new CopyOnWriteArrayList<>();
+
+        new ReactiveWebApplicationContextRunner()
+                .withUserConfiguration(JwtAutoConfiguration.class)
+                .withBean(UserInfoHydrator.class, () -> userId -> {
+                    nonBlocking.add(Schedulers.isInNonBlockingThread());
+                    return new UserInfo(userId, "Teste", "teste@email.com", "USER");
+                })
+                .withPropertyValues(
+                        "wsc.auth.jwt.secret=test-secret-key-12345678901234567890",
+                        "wsc.auth.jwt.accessTokenExpiration=3600000",
+                        "wsc.auth.jwt.claims.profile=compact",
+                        "wsc.auth.jwt.claims.include-name=false",
+                        "wsc.auth.jwt.filter.lazy-principal=true"
+                )
+                .run(context -> {
+                    JwtService jwtService = context.getBean(JwtService.class);
+                    JwtServerAuthenticationConverter converter = context.getBean(JwtServerAuthenticationConverter.class);
+                    String token = jwtService.generateToken(new UserInfo(1L, "Teste", "teste@email.com", "ADMIN"), new Date());
+
+                    MockServerWebExchange exchange = MockServerWebExchange.from(
+                            MockServerHttpRequest.get("/api/v1/users").header("Authorization", "Bearer " + token));
+
+                    Authentication authentication = Mono.defer(() -> converter.convert(exchange))
+                            .subscribeOn(Schedulers.parallel())
+                            .publishOn(Schedulers.parallel())
+                            .map(result -> {
+                                ((UserInfo) result.getPrincipal()).getName();
+                                return result;
+                            })
+                            .block();
+
+                    assertThat(authentication).isNotNull();
+                    assertThat(nonBlocking).containsExactly(false);
+                });
+    }
 }
@@ -3,15 +3,29 @@ package com.wsc.auth.lib.security.filter;
 import org.mockito.Mock;
 import org.junit.jupiter.api.Test;
 import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
 import com.wsc.auth.lib.model.UserInfo;
 import org.junit.jupiter.api.BeforeEach;
+import com.wsc.auth.lib.enums.TokenType;
 import com.wsc.auth.lib.service.JwtService;
+import com.wsc.auth.lib.model.LazyUserInfo;
+import com.wsc.auth.lib.model.TokenValidation;
+import com.wsc.auth.lib.enums.TokenInvalidReason;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import com.wsc.auth.lib.security.token.TokenSlice;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.context.SecurityContextHolder;
+import com.wsc.auth.lib.security.authentication.JwtAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import com.wsc.auth.lib.security.authentication.JwtAuthenticationFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -51,12 +65,14 @@ public class JwtAuthenticationFilterTest {
 
         MockHttpServletResponse response = new MockHttpServletResponse();
 
-        when(jwtService.isInvalidTokenValid(token)).thenReturn(false);
-        when(jwtService.isAccessToken(token)).thenReturn(true);
-        when(jwtService.extractUserInfo(token)).thenReturn(userInfo);
+        when(jwtService.validateToken(TokenSlice.of(token), TokenType.ACCESS))
+                .thenReturn(TokenValidation.valid(TokenType.ACCESS, "1", userInfo, 0L));
 
         filter.doFilter(request, response, filterChain);
 
+        verify(jwtService, times(1)).validateToken(TokenSlice.of(token), TokenType.ACCESS);
+        verifyNoMoreInteractions(jwtService);
+
         var authentication = SecurityContextHolder.getContext().getAuthentication();
 
         assertNotNull(authentication);
@@ -114,7 +130,8 @@ public class JwtAuthenticationFilterTest {
 
         MockHttpServletResponse response = new MockHttpServletResponse();
 
-        when(jwtService.isInvalidTokenValid(token)).thenReturn(true);
+        when(jwtService.validateToken(TokenSlice.of(token), TokenType.ACCESS))
+                .thenReturn(TokenValidation.invalid(TokenInvalidReason.INVALID_SIGNATURE));
 
         filter.doFilter(request, response, filterChain);
 
@@ -133,8 +150,8 @@ public class JwtAuthenticationFilterTest {
 
         MockHttpServletResponse response = new MockHttpServletResponse();
 
-        when(jwtService.isInvalidTokenValid(token)).thenReturn(false);
-        when(jwtService.isAccessToken(token)).thenReturn(false);
+        when(jwtService.validateToken(TokenSlice.of(token), TokenType.ACCESS))
+                .thenReturn(TokenValidation.invalid(TokenInvalidReason.WRONG_TYPE));
 
         filter.doFilter(request, response, filterChain);
 
@@ -142,4 +159,194 @@ public class JwtAuthenticationFilterTest {
 
         verify(filterChain).doFilter(request, response);
     }
+
+    @Test
+    void shouldBuildSeparateAuthenticationPerRequestForRepeatedToken() throws Exception {
+
+        String token = "valid-token";
+
+        UserInfo userInfo = new UserInfo(1L, "Teste", "teste@email.com", "ADMIN");
+        TokenValidation validation = TokenValidation.valid(TokenType.ACCESS, "1", userInfo, 0L);
+
+
+        when(jwtService.validateToken(TokenSlice.of(token), TokenType.ACCESS)).thenReturn(validation);
+
+        MockHttpServletRequest firstRequest = new MockHttpServletRequest();
+        firstRequest.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(firstRequest, new MockHttpServletResponse(), filterChain);
+
+        var first = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+
+        MockHttpServletRequest secondRequest = new MockHttpServletRequest();
+        secondRequest.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(secondRequest, new MockHttpServletResponse(), filterChain);
+
+        var second = SecurityContextHolder.getContext().getAuthentication();
+
+        assertNotNull(first);
+        assertNotSame(first, second);
+        assertSame(first.getPrincipal(), second.getPrincipal());
+        assertEquals(first.getAuthorities(), second.getAuthorities());
+        assertEquals("1", second.getName());
+
+        JwtAuthenticationToken authentication = (JwtAuthenticationToken) first;
+        authentication.setDetails("request-details");
+        authentication.setAuthenticated(false);
+
+        assertEquals("request-details", authentication.getDetails());
+        assertFalse(authentication.isAuthenticated());
+        assertNull(second.getDetails());
+        assertTrue(second.isAuthenticated());
+        assertThrows(IllegalArgumentException.class, () -> second.setAuthenticated(true));
+    }
+
+    @Test
+    void shouldInternAuthoritiesPerRole() {
+
+        JwtAuthenticationFactory factory = new JwtAuthenticationFactory();
+
+        assertSame(factory.authoritiesFor("ADMIN"), factory.authoritiesFor("ADMIN"));
+        assertTrue(factory.authoritiesFor(null).isEmpty());
+    }
+
+    @Test
+    void shouldGrantEveryRoleAndScope() {
+
+        JwtAuthenticationFactory factory = new JwtAuthenticationFactory();
+        UserInfo userInfo = new UserInfo(1L, "Teste", "teste@email.com", "ADMIN",
+                Set.of("ADMIN", "AUDITOR"), Set.of("read"), Map.of());
+
+        List<GrantedAuthority> authorities = factory.authoritiesOf(userInfo);
+
+        assertEquals(3, authorities.size());
+        assertEquals(new SimpleGrantedAuthority("ROLE_ADMIN"), authorities.get(0));
+        assertTrue(authorities.contains(new SimpleGrantedAuthority("ROLE_AUDITOR")));
+        assertTrue(authorities.contains(new SimpleGrantedAuthority("SCOPE_read")));
+        assertSame(authorities, factory.authoritiesOf(userInfo));
+    }
+
+    @Test
+    void shouldSkipExcludedPathsWithoutTouchingTheToken() throws Exception {
+
+        filter.setSkipPaths(new SkipPathMatcher(List.of(), List.of("/actuator/**", "/favicon.ico")));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContextPath("/app");
+        request.setRequestURI("/app/actuator/health");
+        request.addHeader("Authorization", "Bearer valid-token");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        verifyNoInteractions(jwtService);
+
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void shouldLetTheMostSpecificSkipPatternWin() {
+
+        SkipPathMatcher matcher = new SkipPathMatcher(
+                List.of("/api/**", "/api/public/me"),
+                List.of("/api/public/**")
+        );
+
+        assertFalse(matcher.shouldSkip("/api/v1/users"));
+        assertTrue(matcher.shouldSkip("/api/public/docs"));
+        assertTrue(matcher.shouldSkip("/api/public"));
+        assertFalse(matcher.shouldSkip("/api/public/me"));
+        assertFalse(matcher.shouldSkip("/api/publicity"));
+        assertTrue(matcher.shouldSkip("/health"));
+        assertFalse(matcher.shouldSkip("/api/v1/users?next=/api/public/x"));
+    }
+
+    @Test
+    void shouldRejectUnsupportedSkipPatterns() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new SkipPathMatcher(List.of(), List.of("/api/*/docs")));
+        assertTrue(new SkipPathMatcher(List.of(), List.of()).isEmpty());
+    }
+
+    @Test
+    void shouldDecodeLazyPrincipalOnlyWhenRead() throws Exception {
+
+        String token = "valid-token";
+        AtomicInteger loads = new AtomicInteger();
+        LazyUserInfo userInfo = new LazyUserInfo(1L, () -> {
+            loads.incrementAndGet();
+            return new UserInfo(1L, "Teste", "teste@email.com", "ADMIN");
+        });
+
+        filter.setLazyPrincipal(true);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(jwtService.validateTokenLazily(TokenSlice.of(token), TokenType.ACCESS))
+                .thenReturn(TokenValidation.valid(TokenType.ACCESS, "1", userInfo, 0L));
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(jwtService, never()).validateToken(TokenSlice.of(token), TokenType.ACCESS);
+
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        assertTrue(authentication.isAuthenticated());
+        assertEquals("1", authentication.getName());
+        assertSame(userInfo, authentication.getPrincipal());
+        assertEquals(0, loads.get());
+
+        assertTrue(authentication.getAuthorities()
+                .contains(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        assertEquals("teste@email.com", userInfo.getEmail());
+        assertEquals(1, loads.get());
+
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void shouldResolveTokenFromConfiguredSourcesInOrder() throws Exception {
+
+        TokenResolver resolver = new TokenResolver(List.of("Bearer", "Token"), "access_token", "token");
+
+        assertEquals(TokenSlice.of("abc"), resolver.fromAuthorization("bearer  abc "));
+        assertEquals(TokenSlice.of("abc"), resolver.fromAuthorization("TOKEN abc"));
+        assertNull(resolver.fromAuthorization("Basic abc"));
+        assertNull(resolver.fromAuthorization("Bearer "));
+        assertNull(resolver.fromAuthorization("Bearerabc"));
+        assertEquals(TokenSlice.of("xyz"), resolver.fromQuery("a=1&token=xyz&b=2"));
+        assertNull(resolver.fromQuery("tokens=xyz&token="));
+        assertEquals(TokenSlice.of("header-token"),
+                resolver.resolve("Bearer header-token", name -> "cookie-token", "token=query-token"));
+        assertEquals(TokenSlice.of("query-token"),
+                resolver.resolve(null, name -> null, "token=query-token"));
+
+        UserInfo userInfo = new UserInfo(1L, "Teste", "teste@email.com", "ADMIN");
+        filter.setTokenResolver(resolver);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("access_token", "cookie-token"));
+        request.setQueryString("token=query-token");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(jwtService.validateToken(TokenSlice.of("cookie-token"), TokenType.ACCESS))
+                .thenReturn(TokenValidation.valid(TokenType.ACCESS, "1", userInfo, 0L));
+
+        filter.doFilter(request, response, filterChain);
+
+        assertEquals(userInfo, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(jwtService, times(1)).validateToken(TokenSlice.of("cookie-token"), TokenType.ACCESS);
+        verifyNoMoreInteractions(jwtService);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenResolver(List.of("Bearer token"), null, null));
+    }
 }
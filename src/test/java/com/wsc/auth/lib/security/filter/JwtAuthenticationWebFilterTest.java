@@ -0,0 +1,146 @@
+package com.wsc.auth.lib.security.filter;
+
+import org.mockito.Mock;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import com.wsc.auth.lib.model.UserInfo;
+import org.junit.jupiter.api.BeforeEach;
+import com.wsc.auth.lib.enums.TokenType;
+import reactor.core.scheduler.Schedulers;
+import com.wsc.auth.lib.service.JwtService;
+import com.wsc.auth.lib.model.TokenValidation;
+import com.wsc.auth.lib.enums.TokenInvalidReason;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import com.wsc.auth.lib.security.token.TokenSlice;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import com.wsc.auth.lib.security.authentication.JwtAuthenticationFactory;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtAuthenticationWebFilterTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    private final AtomicInteger chainCalls = new AtomicInteger();
+    private final AtomicReference<Authentication> seenAuthentication = new AtomicReference<>();
+
+    private WebFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        chain = exchange -> ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .doOnNext(seenAuthentication::set)
+                .then(Mono.fromRunnable(chainCalls::incrementAndGet));
+    }
+
+    @Test
+    void shouldAuthenticateWhenTokenIsValid() {
+
+        UserInfo userInfo = new UserInfo(1L, "Teste", "teste@email.com", "ADMIN");
+
+        when(jwtService.validateToken(TokenSlice.of("valid-token"), TokenType.ACCESS))
+                .thenReturn(TokenValidation.valid(TokenType.ACCESS, "1", userInfo, 0L));
+
+        JwtAuthenticationWebFilter filter = new JwtAuthenticationWebFilter(new JwtServerAuthenticationConverter(jwtService));
+
+        filter.filter(this.exchange("Bearer valid-token"), chain).block();
+
+        assertEquals(1, chainCalls.get());
+        assertNotNull(seenAuthentication.get());
+        assertEquals(userInfo, seenAuthentication.get().getPrincipal());
+        assertTrue(seenAuthentication.get().getAuthorities()
+                .contains(new SimpleGrantedAuthority("ROLE_ADMIN")));
+    }
+
+    @Test
+    void shouldContinueUnauthenticatedWhenTokenIsInvalid() {
+
+        when(jwtService.validateToken(TokenSlice.of("invalid-token"), TokenType.ACCESS))
+                .thenReturn(TokenValidation.invalid(TokenInvalidReason.EXPIRED));
+
+        JwtAuthenticationWebFilter filter = new JwtAuthenticationWebFilter(new JwtServerAuthenticationConverter(jwtService));
+
+        filter.filter(this.exchange("Bearer invalid-token"), chain).block();
+
+        assertEquals(1, chainCalls.get());
+        assertNull(seenAuthentication.get());
+    }
+
+    @Test
+    void shouldNotValidateWithoutBearerToken() {
+
+        JwtAuthenticationWebFilter filter = new JwtAuthenticationWebFilter(new JwtServerAuthenticationConverter(jwtService));
+
+        filter.filter(this.exchange(null), chain).block();
+        filter.filter(this.exchange("Basic abc"), chain).block();
+
+        assertEquals(2, chainCalls.get());
+        assertNull(seenAuthentication.get());
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    void shouldValidateOnOffloadSchedulerWhenConfigured() {
+
+        UserInfo userInfo = new UserInfo(1L, "Teste", "teste@email.com", "ADMIN");
+        AtomicReference<String> validatingThread = new AtomicReference<>();
+
+        when(jwtService.validateToken(TokenSlice.of("valid-token"), TokenType.ACCESS)).thenAnswer(invocation -> {
+            validatingThread.set(Thread.currentThread().getName());
+            return TokenValidation.valid(TokenType.ACCESS, "1", userInfo, 0L);
+        });
+
+        JwtServerAuthenticationConverter converter = new JwtServerAuthenticationConverter(
+                jwtService,
+                new JwtAuthenticationFactory(),
+                Schedulers.boundedElastic()
+        );
+
+        new JwtAuthenticationWebFilter(converter).filter(this.exchange("Bearer valid-token"), chain).block();
+
+        assertEquals(1, chainCalls.get());
+        assertEquals(userInfo, seenAuthentication.get().getPrincipal());
+        assertTrue(validatingThread.get().startsWith("boundedElastic"));
+    }
+
+    @Test
+    void shouldReadTokenFromQueryParameterWhenConfigured() {
+
+        UserInfo userInfo = new UserInfo(1L, "Teste", "teste@email.com", "ADMIN");
+
+        when(jwtService.validateToken(TokenSlice.of("valid-token"), TokenType.ACCESS))
+                .thenReturn(TokenValidation.valid(TokenType.ACCESS, "1", userInfo, 0L));
+
+        JwtServerAuthenticationConverter converter = new JwtServerAuthenticationConverter(jwtService);
+        converter.setTokenResolver(new TokenResolver(List.of("Bearer"), null, "access_token"));
+        JwtAuthenticationWebFilter filter = new JwtAuthenticationWebFilter(converter);
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/users?page=1&access_token=valid-token")), chain).block();
+
+        assertEquals(1, chainCalls.get());
+        assertEquals(userInfo, seenAuthentication.get().getPrincipal());
+    }
+
+    private MockServerWebExchange exchange(String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/v1/users");
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return MockServerWebExchange.from(request);
+    }
+}
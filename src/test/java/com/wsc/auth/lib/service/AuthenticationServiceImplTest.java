@@ -4,20 +4,39 @@ import org.mockito.Mock;
 import org.mockito.InjectMocks;
 import org.junit.jupiter.api.Test;
 import com.wsc.auth.lib.model.UserInfo;
+import com.wsc.auth.lib.enums.TokenType;
 import com.wsc.auth.lib.contract.JwtUser;
 import com.wsc.auth.lib.model.AuthResponse;
 import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.model.TokenValidation;
+import com.wsc.auth.lib.enums.TokenInvalidReason;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import com.wsc.auth.lib.service.impl.JwtServiceImpl;
+import com.wsc.auth.lib.ratelimit.LoginAttemptLimiter;
+import com.wsc.auth.lib.executor.BoundedAuthTaskExecutor;
+import com.wsc.auth.lib.exception.RefreshTokenReuseException;
 import com.wsc.auth.lib.service.impl.AuthenticationServiceImpl;
+import com.wsc.auth.lib.executor.VirtualThreadAuthTaskExecutor;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import com.wsc.auth.lib.exception.AuthenticationOverloadedException;
+import com.wsc.auth.lib.exception.AuthenticationRateLimitedException;
 
 import java.util.Date;
+import java.util.List;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 
 @ExtendWith(MockitoExtension.class)
 public class AuthenticationServiceImplTest {
@@ -86,12 +105,28 @@ public class AuthenticationServiceImplTest {
         assertEquals("Bearer", response.tokenType());
         assertEquals(3600000L, response.expiresAt());
         assertEquals(1L, response.userInfo().getId());
+        assertFalse(response.passwordUpgradeRequired());
 
         verify(passwordEncoder).matches(rawPassword, encodedPassword);
         verify(jwtService).generateToken(eq(user), any(Date.class));
         verify(jwtService).generateRefreshToken(eq(user), any(Date.class));
     }
 
+    @Test
+    void authenticateReportsPasswordUpgradeTest() {
+
+        JwtUser user = mock(JwtUser.class);
+
+        when(passwordEncoder.matches("123", "legacy-hash"))
+                .thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("legacy-hash"))
+                .thenReturn(true);
+
+        AuthResponse response = authService.authenticate("123", "legacy-hash", user);
+
+        assertTrue(response.passwordUpgradeRequired());
+    }
+
     @Test
     void authenticateFailedTest() {
 
@@ -111,6 +146,212 @@ public class AuthenticationServiceImplTest {
         verify(jwtService, never()).generateRefreshToken(any(), any());
     }
 
+    @Test
+    void authenticateRateLimitedAfterRepeatedFailuresTest() throws Exception {
+
+        authService.setAttemptLimiter(new LoginAttemptLimiter(3, 5, Duration.ofMinutes(15), 1024, 4));
+
+        JwtUser user = mock(JwtUser.class);
+        JwtUser otherUser = mock(JwtUser.class);
+        when(user.getId()).thenReturn(1L);
+        when(otherUser.getId()).thenReturn(2L);
+        when(passwordEncoder.matches("wrong", "encoded")).thenReturn(false);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RuntimeException.class, () -> authService.authenticate("wrong", "encoded", user, "10.0.0.1"));
+        }
+
+        assertThrows(AuthenticationRateLimitedException.class, () ->
+                authService.authenticate("wrong", "encoded", user, "10.0.0.2")
+        );
+        ExecutionException exception = assertThrows(ExecutionException.class, () ->
+                authService.authenticateAsync("wrong", "encoded", user).get(5, TimeUnit.SECONDS)
+        );
+        assertInstanceOf(AuthenticationRateLimitedException.class, exception.getCause());
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(RuntimeException.class, () -> authService.authenticate("wrong", "encoded", otherUser, "10.0.0.1"));
+        }
+        assertThrows(AuthenticationRateLimitedException.class, () ->
+                authService.authenticate("wrong", "encoded", otherUser, "10.0.0.1")
+        );
+
+        verify(passwordEncoder, times(5)).matches("wrong", "encoded");
+    }
+
+    @Test
+    void authenticateAsyncBurstCannotOutrunFailureLimitTest() throws Exception {
+
+        authService.setAttemptLimiter(new LoginAttemptLimiter(3, 100, Duration.ofMinutes(15), 1024, 4));
+
+        JwtUser user = mock(JwtUser.class);
+        when(user.getId()).thenReturn(1L);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordEncoder.matches("wrong", "encoded")).thenAnswer(invocation -> !release.await(5, TimeUnit.SECONDS));
+
+        try (BoundedAuthTaskExecutor executor = new BoundedAuthTaskExecutor("test-hashing", 4, 16)) {
+            authService.setHashingExecutor(executor);
+
+            List<CompletableFuture<CompletableFuture<AuthResponse>>> attempts = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                String clientKey = "10.0.0." + i;
+                attempts.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return authService.authenticateAsync("wrong", "encoded", user, clientKey);
+                }));
+            }
+            start.countDown();
+
+            List<CompletableFuture<AuthResponse>> submitted = new ArrayList<>();
+            for (CompletableFuture<CompletableFuture<AuthResponse>> attempt : attempts) {
+                submitted.add(attempt.get(5, TimeUnit.SECONDS));
+            }
+            release.countDown();
+
+            int rateLimited = 0;
+            for (CompletableFuture<AuthResponse> attempt : submitted) {
+                ExecutionException failure = assertThrows(ExecutionException.class, () -> attempt.get(5, TimeUnit.SECONDS));
+                if (failure.getCause() instanceof AuthenticationRateLimitedException) {
+                    rateLimited++;
+                }
+            }
+            assertTrue(rateLimited >= 7);
+        }
+
+        verify(passwordEncoder, atMost(3)).matches("wrong", "encoded");
+    }
+
+    @Test
+    void authenticateSuccessRefundsReservedAttemptTest() {
+
+        authService.setAttemptLimiter(new LoginAttemptLimiter(1, 5, Duration.ofMinutes(15), 1024, 4));
+
+        JwtUser user = mock(JwtUser.class);
+        when(user.getId()).thenReturn(1L);
+        when(passwordEncoder.matches("123", "encoded")).thenReturn(true);
+        when(passwordEncoder.matches("wrong", "encoded")).thenReturn(false);
+
+        for (int i = 0; i < 3; i++) {
+            authService.authenticate("123", "encoded", user, "10.0.0.1");
+        }
+
+        assertThrows(RuntimeException.class, () -> authService.authenticate("wrong", "encoded", user, "10.0.0.1"));
+        assertThrows(AuthenticationRateLimitedException.class, () ->
+                authService.authenticate("123", "encoded", user, "10.0.0.1")
+        );
+    }
+
+    @Test
+    void authenticateUnknownUserFailsLikeWrongPasswordTest() {
+
+        when(passwordEncoder.encode(anyString())).thenReturn("dummy-hash");
+        when(passwordEncoder.matches("123", "encoded")).thenReturn(false);
+        clearInvocations(passwordEncoder);
+        authService = new AuthenticationServiceImpl(jwtService, passwordEncoder, jwtProperties);
+
+        RuntimeException wrongPassword = assertThrows(RuntimeException.class, () ->
+                authService.authenticate("123", "encoded", mock(JwtUser.class))
+        );
+
+        for (int i = 0; i < 3; i++) {
+            RuntimeException unknownUser = assertThrows(RuntimeException.class, () ->
+                    authService.authenticateUnknownUser("123", null)
+            );
+            assertEquals(wrongPassword.getClass(), unknownUser.getClass());
+            assertEquals(wrongPassword.getMessage(), unknownUser.getMessage());
+        }
+
+        verify(passwordEncoder, times(1)).encode(anyString());
+        verify(passwordEncoder, times(3)).matches("123", "dummy-hash");
+        verify(jwtService, never()).generateToken(any(), any());
+    }
+
+    @Test
+    void authenticateUnknownUserLocksOutLikeKnownUserTest() {
+
+        authService.setAttemptLimiter(new LoginAttemptLimiter(3, 100, Duration.ofMinutes(15), 1024, 4));
+        when(passwordEncoder.matches(eq("wrong"), any())).thenReturn(false);
+
+        int knownFailures = 0;
+        int unknownFailures = 0;
+        for (int i = 0; i < 5; i++) {
+            String clientKey = "10.0.0." + i;
+            try {
+                authService.authenticate("alice", "wrong", "encoded", mock(JwtUser.class), clientKey);
+            } catch (AuthenticationRateLimitedException e) {
+                break;
+            } catch (RuntimeException e) {
+                knownFailures++;
+            }
+        }
+        for (int i = 0; i < 5; i++) {
+            String clientKey = "10.0.1." + i;
+            try {
+                authService.authenticateUnknownUser("ghost", "wrong", clientKey);
+            } catch (AuthenticationRateLimitedException e) {
+                break;
+            } catch (RuntimeException e) {
+                unknownFailures++;
+            }
+        }
+
+        assertEquals(3, knownFailures);
+        assertEquals(knownFailures, unknownFailures);
+        ExecutionException rejected = assertThrows(ExecutionException.class, () ->
+                authService.authenticateUnknownUserAsync("ghost", "wrong", "10.0.2.1").get(5, TimeUnit.SECONDS)
+        );
+        assertInstanceOf(AuthenticationRateLimitedException.class, rejected.getCause());
+    }
+
+    @Test
+    void authenticateLimitsAreNotSharedByHashCodeCollisionsTest() {
+
+        authService.setAttemptLimiter(new LoginAttemptLimiter(1, 1, Duration.ofMinutes(15), 1024, 4));
+        when(passwordEncoder.matches("wrong", "encoded")).thenReturn(false);
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        assertThrows(RuntimeException.class, () -> authService.authenticateUnknownUser("Aa", "wrong", "Aa"));
+        assertThrows(AuthenticationRateLimitedException.class, () -> authService.authenticateUnknownUser("Aa", "wrong", "10.0.0.1"));
+
+        RuntimeException failure = assertThrows(RuntimeException.class, () ->
+                authService.authenticate("BB", "wrong", "encoded", mock(JwtUser.class), "BB")
+        );
+        assertEquals("Invalid credentials", failure.getMessage());
+    }
+
+    @Test
+    void authenticateUnknownUserAsyncSharesExecutorAndLimitsTest() throws Exception {
+
+        when(passwordEncoder.encode(anyString())).thenReturn("dummy-hash");
+        clearInvocations(passwordEncoder);
+        authService = new AuthenticationServiceImpl(jwtService, passwordEncoder, jwtProperties);
+        authService.setAttemptLimiter(new LoginAttemptLimiter(3, 2, Duration.ofMinutes(15), 1024, 4));
+
+        try (BoundedAuthTaskExecutor executor = new BoundedAuthTaskExecutor("test-hashing", 1, 10)) {
+            authService.setHashingExecutor(executor);
+
+            for (int i = 0; i < 2; i++) {
+                ExecutionException failure = assertThrows(ExecutionException.class, () ->
+                        authService.authenticateUnknownUserAsync("123", "10.0.0.1").get(5, TimeUnit.SECONDS)
+                );
+                assertEquals("Invalid credentials", failure.getCause().getMessage());
+            }
+
+            ExecutionException rejected = assertThrows(ExecutionException.class, () ->
+                    authService.authenticateUnknownUserAsync("123", "10.0.0.1").get(5, TimeUnit.SECONDS)
+            );
+            assertInstanceOf(AuthenticationRateLimitedException.class, rejected.getCause());
+        }
+
+        verify(passwordEncoder, times(1)).encode(anyString());
+        verify(passwordEncoder, times(2)).matches("123", "dummy-hash");
+    }
+
     @Test
     void authenticateWithRefreshTokenTest() {
 
@@ -123,19 +364,15 @@ public class AuthenticationServiceImplTest {
                 "ADMIN"
         );
 
-        when(jwtService.isInvalidTokenValid(refreshToken))
-                .thenReturn(false);
-
-        when(jwtService.isRefreshToken(refreshToken))
-                .thenReturn(true);
+        TokenValidation validation = TokenValidation.valid(TokenType.REFRESH, "1", userInfo, 0L);
 
-        when(jwtService.extractUserInfo(refreshToken))
-                .thenReturn(userInfo);
+        when(jwtService.validateToken(refreshToken, TokenType.REFRESH))
+                .thenReturn(validation);
 
         when(jwtService.generateToken(eq(userInfo), any(Date.class)))
                 .thenReturn("new-access-token");
 
-        when(jwtService.generateRefreshToken(eq(userInfo), any(Date.class)))
+        when(jwtService.rotateRefreshToken(eq(validation), any(Date.class)))
                 .thenReturn("new-refresh-token");
 
         when(jwtProperties.getAccessTokenExpiration())
@@ -150,7 +387,28 @@ public class AuthenticationServiceImplTest {
         assertEquals(1L, response.userInfo().getId());
 
         verify(jwtService).generateToken(eq(userInfo), any(Date.class));
-        verify(jwtService).generateRefreshToken(eq(userInfo), any(Date.class));
+        verify(jwtService).rotateRefreshToken(eq(validation), any(Date.class));
+    }
+
+    @Test
+    void authenticateWithReusedRefreshTokenTest() {
+
+        String refreshToken = "rotated-refresh-token";
+
+        UserInfo userInfo = new UserInfo(1L, "Teste", "teste@email.com", "ADMIN");
+        TokenValidation validation = TokenValidation.valid(TokenType.REFRESH, "1", userInfo, 0L, "jti-1", "family-1");
+
+        when(jwtService.validateToken(refreshToken, TokenType.REFRESH))
+                .thenReturn(validation);
+
+        when(jwtService.rotateRefreshToken(eq(validation), any(Date.class)))
+                .thenThrow(new RefreshTokenReuseException("family-1"));
+
+        assertThrows(RefreshTokenReuseException.class, () ->
+                authService.authenticateWithRefreshToken(refreshToken)
+        );
+
+        verify(jwtService, never()).generateToken(any(), any());
     }
 
     @Test
@@ -158,8 +416,8 @@ public class AuthenticationServiceImplTest {
 
         String refreshToken = "invalid";
 
-        when(jwtService.isInvalidTokenValid(refreshToken))
-                .thenReturn(true);
+        when(jwtService.validateToken(refreshToken, TokenType.REFRESH))
+                .thenReturn(TokenValidation.invalid(TokenInvalidReason.EXPIRED));
 
         assertThrows(RuntimeException.class, () ->
                 authService.authenticateWithRefreshToken(refreshToken)
@@ -173,8 +431,8 @@ public class AuthenticationServiceImplTest {
 
         String refreshToken = "invalid";
 
-        when(jwtService.isRefreshToken(refreshToken))
-                .thenReturn(false);
+        when(jwtService.validateToken(refreshToken, TokenType.REFRESH))
+                .thenReturn(TokenValidation.invalid(TokenInvalidReason.WRONG_TYPE));
 
         assertThrows(RuntimeException.class, () ->
                 authService.authenticateWithRefreshToken(refreshToken)
@@ -182,4 +440,127 @@ public class AuthenticationServiceImplTest {
 
         verify(jwtService, never()).generateToken(any(), any());
     }
+
+    @Test
+    void generateHashPasswordAsyncTest() throws Exception {
+
+        when(passwordEncoder.encode("123456"))
+                .thenReturn("encoded-password");
+
+        try (BoundedAuthTaskExecutor executor = new BoundedAuthTaskExecutor("test-hashing", 1, 1)) {
+            authService.setHashingExecutor(executor);
+
+            assertEquals("encoded-password", authService.generateHashPasswordAsync("123456").get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void authenticateAsyncRejectedWhenSaturatedTest() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (BoundedAuthTaskExecutor executor = new BoundedAuthTaskExecutor("test-hashing", 1, 0)) {
+            authService.setHashingExecutor(executor);
+
+            CompletableFuture<Boolean> blocking = executor.submit(() -> {
+                try {
+                    return release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            CompletableFuture<AuthResponse> rejected = authService.authenticateAsync("123", "encoded", mock(JwtUser.class));
+
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AuthenticationOverloadedException.class, exception.getCause());
+            assertEquals(1, executor.rejectedCount());
+
+            release.countDown();
+            assertTrue(blocking.get(5, TimeUnit.SECONDS));
+        }
+
+        verify(passwordEncoder, never()).matches(any(), any());
+    }
+
+    @Test
+    void authenticateAsyncOnVirtualThreadsRejectedWhenSaturatedTest() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (VirtualThreadAuthTaskExecutor executor = new VirtualThreadAuthTaskExecutor("test-hashing", 1, 0)) {
+            authService.setHashingExecutor(executor);
+
+            CompletableFuture<Boolean> blocking = executor.submit(() -> {
+                try {
+                    return Thread.currentThread().isVirtual() && release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            CompletableFuture<AuthResponse> rejected = authService.authenticateAsync("123", "encoded", mock(JwtUser.class));
+
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AuthenticationOverloadedException.class, exception.getCause());
+            assertEquals(1, executor.rejectedCount());
+
+            release.countDown();
+            assertTrue(blocking.get(5, TimeUnit.SECONDS));
+        }
+
+        verify(passwordEncoder, never()).matches(any(), any());
+    }
+
+    @Test
+    void authenticateAsyncOnClosedVirtualThreadExecutorFailsWithoutLeakingPermitsTest() throws Exception {
+
+        VirtualThreadAuthTaskExecutor executor = new VirtualThreadAuthTaskExecutor("test-hashing", 1, 0);
+        executor.close();
+        authService.setHashingExecutor(executor);
+
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<AuthResponse> rejected = authService.authenticateAsync("123", "encoded", mock(JwtUser.class));
+
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AuthenticationOverloadedException.class, exception.getCause());
+        }
+
+        assertEquals(2, executor.rejectedCount());
+        assertEquals(0, executor.queueSize());
+        verify(passwordEncoder, never()).matches(any(), any());
+    }
+
+    @Test
+    void authenticateWithRefreshTokenAsyncUsesLookupExecutorTest() throws Exception {
+
+        String refreshToken = "refresh-token";
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(jwtService.validateToken(refreshToken, TokenType.REFRESH))
+                .thenReturn(TokenValidation.invalid(TokenInvalidReason.EXPIRED));
+
+        try (VirtualThreadAuthTaskExecutor hashing = new VirtualThreadAuthTaskExecutor("test-hashing", 1, 0);
+             VirtualThreadAuthTaskExecutor lookup = new VirtualThreadAuthTaskExecutor("test-lookup", 1, 0)) {
+            authService.setHashingExecutor(hashing);
+            authService.setLookupExecutor(lookup);
+
+            CompletableFuture<Boolean> blocking = hashing.submit(() -> {
+                try {
+                    return release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            CompletableFuture<AuthResponse> refreshed = authService.authenticateWithRefreshTokenAsync(refreshToken);
+
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> refreshed.get(5, TimeUnit.SECONDS));
+            assertEquals("Invalid refresh token", exception.getCause().getMessage());
+            assertEquals(0, lookup.rejectedCount());
+
+            release.countDown();
+            assertTrue(blocking.get(5, TimeUnit.SECONDS));
+        }
+    }
 }
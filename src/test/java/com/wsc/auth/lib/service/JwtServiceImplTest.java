@@ -5,16 +5,52 @@ import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.Test;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.security.Keys;
+import com.wsc.auth.lib.enums.JwtMode;
 import com.wsc.auth.lib.model.UserInfo;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
 import com.wsc.auth.lib.enums.TokenType;
+import com.wsc.auth.lib.model.TokenBatch;
+import com.wsc.auth.lib.enums.ClaimProfile;
+import com.wsc.auth.lib.security.key.KeyRing;
 import com.wsc.auth.lib.config.JwtProperties;
+import com.wsc.auth.lib.model.TokenValidation;
+import com.wsc.auth.lib.enums.SigningAlgorithm;
+import com.wsc.auth.lib.enums.TokenInvalidReason;
+import com.wsc.auth.lib.cache.VerifiedTokenCache;
+import com.wsc.auth.lib.security.token.TokenSlice;
+import com.wsc.auth.lib.security.key.KeyRingLoader;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import com.wsc.auth.lib.security.key.KeyRingWatcher;
 import com.wsc.auth.lib.service.impl.JwtServiceImpl;
-
+import com.wsc.auth.lib.cache.CachingUserInfoHydrator;
+import com.wsc.auth.lib.revocation.TokenRevocationList;
+import com.wsc.auth.lib.store.InMemoryRefreshTokenStore;
+import com.wsc.auth.lib.security.token.HmacTokenVerifier;
+import com.wsc.auth.lib.revocation.SubjectInvalidationIndex;
+import com.wsc.auth.lib.exception.RefreshTokenReuseException;
+
+import java.util.Map;
+import java.util.Set;
 import java.util.Date;
+import java.util.List;
+import java.util.Base64;
+import java.util.Base64;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.io.IOException;
+import java.security.KeyPair;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.ArgumentMatchers.any;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class JwtServiceImplTest {
@@ -37,6 +73,345 @@ public class JwtServiceImplTest {
         );
     }
 
+    @Test
+    void validateTokenTest() {
+
+        String token = this.generateValidToken();
+
+        TokenValidation validation = jwtService.validateToken(token);
+
+        assertTrue(validation.valid());
+        assertNull(validation.reason());
+        assertEquals(TokenType.ACCESS, validation.type());
+        assertEquals("1", validation.subject());
+        assertEquals(1L, validation.userInfo().getId());
+        assertEquals("ADMIN", validation.userInfo().getRole());
+        assertNotNull(validation.expiresAt());
+    }
+
+    @Test
+    void validateRefreshTokenTest() {
+
+        String token = this.generateValidRefreshToken();
+
+        TokenValidation validation = jwtService.validateToken(token);
+
+        assertTrue(validation.isRefreshToken());
+        assertFalse(validation.isAccessToken());
+    }
+
+    @Test
+    void validateTokenWithExpectedTypeTest() {
+
+        String token = this.generateValidToken();
+
+        assertTrue(jwtService.validateToken(token, TokenType.ACCESS).isAccessToken());
+
+        TokenValidation validation = jwtService.validateToken(token, TokenType.REFRESH);
+
+        assertFalse(validation.valid());
+        assertEquals(TokenInvalidReason.WRONG_TYPE, validation.reason());
+    }
+
+    @Test
+    void validateTokenWithWrongIssuerTest() {
+
+        String token = Jwts.builder()
+                .subject("1")
+                .claim("type", TokenType.ACCESS.name())
+                .issuer("other-service")
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(key)
+                .compact();
+
+        TokenValidation validation = jwtService.validateToken(token);
+
+        assertFalse(validation.valid());
+        assertEquals(TokenInvalidReason.INVALID_CLAIMS, validation.reason());
+    }
+
+    @Test
+    void validateTokenWithinClockSkewTest() {
+
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("secretkeyaratestesunitarios-secretinvalidaemprod");
+        properties.setClockSkewSeconds(120);
+
+        JwtServiceImpl skewedService = new JwtServiceImpl(properties);
+
+        String token = Jwts.builder()
+                .subject("1")
+                .claim("type", TokenType.ACCESS.name())
+                .issuer("auth-service")
+                .expiration(new Date(System.currentTimeMillis() - 60000))
+                .signWith(key)
+                .compact();
+
+        assertTrue(skewedService.validateToken(token).valid());
+        assertEquals(TokenInvalidReason.EXPIRED, jwtService.validateToken(token).reason());
+    }
+
+    @Test
+    void validateTokenUsesCacheWhenEnabledTest() {
+
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("secretkeyaratestesunitarios-secretinvalidaemprod");
+        properties.getCache().setEnabled(true);
+
+        JwtServiceImpl cachedService = new JwtServiceImpl(properties);
+        VerifiedTokenCache cache = cachedService.getVerifiedTokenCache().orElseThrow();
+
+        String token = this.generateValidToken();
+
+        TokenValidation first = cachedService.validateToken(token, TokenType.ACCESS);
+        TokenValidation second = cachedService.validateToken(token, TokenType.ACCESS);
+
+        assertTrue(first.isAccessToken());
+        assertSame(first, second);
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+
+        TokenValidation wrongType = cachedService.validateToken(token, TokenType.REFRESH);
+
+        assertEquals(TokenInvalidReason.WRONG_TYPE, wrongType.reason());
+    }
+
+    @Test
+    void revokedAccessTokenIsRejectedTest() {
+
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("secretkeyaratestesunitarios-secretinvalidaemprod");
+        properties.setAccessTokenExpiration(3600000L);
+        properties.getCache().setEnabled(true);
+
+        JwtServiceImpl revokingService = new JwtServiceImpl(properties);
+        revokingService.setRevocationList(new TokenRevocationList(16, 0.01));
+
+        String revoked = revokingService.generateToken(this.generateValidUser(), new Date());
+        String other = revokingService.generateToken(this.generateValidUser(), new Date());
+
+        assertTrue(revokingService.validateToken(revoked, TokenType.ACCESS).valid());
+        assertTrue(revokingService.revokeToken(revoked));
+
+        assertEquals(TokenInvalidReason.REVOKED, revokingService.validateToken(revoked, TokenType.ACCESS).reason());
+        assertTrue(revokingService.validateToken(other, TokenType.ACCESS).valid());
+        assertFalse(revokingService.revokeToken("invalid-token"));
+    }
+
+    @Test
+    void revocationListGrowsBeyondExpectedSizeTest() {
+
+        TokenRevocationList revocationList = new TokenRevocationList(8, 0.01);
+        long expiresAt = System.currentTimeMillis() + 60000;
+
+        for (int i = 0; i < 1000; i++) {
+            revocationList.revoke("jti-" + i, expiresAt);
+        }
+        revocationList.revoke("expired", System.currentTimeMillis() - 1);
+
+        assertEquals(1000, revocationList.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(revocationList.isRevoked("jti-" + i));
+        }
+        assertFalse(revocationList.isRevoked("expired"));
+        assertFalse(revocationList.isRevoked("jti-1000"));
+    }
+
+    @Test
+    void revokeAllTokensRejectsEarlierTokensOfThatUserTest() {
+
+        jwtService.setSubjectIndex(new SubjectInvalidationIndex(4));
+
+        Date earlier = new Date(System.currentTimeMillis() - 600000L);
+        UserInfo otherUser = new UserInfo(2L, "Outro", "outro@email.com", "USER");
+
+        String oldAccess = jwtService.generateToken(this.generateValidUser(), earlier);
+        String oldRefresh = jwtService.generateRefreshToken(this.generateValidUser(), earlier);
+        String otherAccess = jwtService.generateToken(otherUser, earlier);
+
+        jwtService.revokeAllTokens(1L);
+
+        assertEquals(TokenInvalidReason.REVOKED, jwtService.validateToken(oldAccess).reason());
+        assertEquals(TokenInvalidReason.REVOKED, jwtService.validateToken(oldRefresh).reason());
+        assertTrue(jwtService.validateToken(otherAccess).valid());
+
+        String newAccess = jwtService.generateToken(this.generateValidUser(), new Date(System.currentTimeMillis() + 1000));
+        assertTrue(jwtService.validateToken(newAccess).valid());
+    }
+
+    @Test
+    void revokeAllTokensRejectsTokensIssuedEarlierInTheSameSecondTest() {
+
+        jwtService.setSubjectIndex(new SubjectInvalidationIndex(4));
+
+        for (int i = 0; i < 20; i++) {
+            String before = jwtService.generateToken(this.generateValidUser(), new Date());
+
+            jwtService.revokeAllTokens(1L);
+
+            String after = jwtService.generateToken(this.generateValidUser(), new Date());
+
+            assertEquals(TokenInvalidReason.REVOKED, jwtService.validateToken(before).reason());
+            assertTrue(jwtService.validateToken(after).valid());
+        }
+    }
+
+    @Test
+    void revokeAllTokensAppliesToEveryEntryPointTest() {
+
+        jwtService.setSubjectIndex(new SubjectInvalidationIndex(4));
+        jwtService.setRevocationList(new TokenRevocationList(16, 0.01));
+
+        String accessToken = jwtService.generateToken(this.generateValidUser(), new Date());
+        String refreshToken = jwtService.generateRefreshToken(this.generateValidUser(), new Date());
+        String revokedToken = jwtService.generateToken(this.generateValidUser(), new Date());
+
+        assertTrue(jwtService.revokeToken(revokedToken));
+        assertTrue(jwtService.isInvalidTokenValid(revokedToken));
+        assertThrows(JwtException.class, () -> jwtService.extractUserInfo(revokedToken));
+
+        jwtService.revokeAllTokens(1L);
+
+        assertTrue(jwtService.isInvalidTokenValid(accessToken));
+        assertThrows(JwtException.class, () -> jwtService.extractUserInfo(accessToken));
+        assertThrows(JwtException.class, () -> jwtService.isAccessToken(accessToken));
+        assertThrows(JwtException.class, () -> jwtService.isRefreshToken(refreshToken));
+        assertThrows(JwtException.class, () -> jwtService.generateTokenWithRefreshToken(refreshToken));
+        assertThrows(JwtException.class, () -> jwtService.generateNewRefreshToken(refreshToken));
+    }
+
+    @Test
+    void subjectInvalidationIndexSnapshotTest(@TempDir Path directory) throws Exception {
+
+        SubjectInvalidationIndex index = new SubjectInvalidationIndex(2);
+        long[] subjects = new long[500];
+        for (int i = 0; i < subjects.length; i++) {
+            subjects[i] = i * 7919L - 100;
+        }
+
+        index.invalidateBefore(subjects, 1000);
+        index.invalidateBefore(0L, 2000);
+        index.invalidateBefore(0L, 1500);
+
+        Path file = directory.resolve("sessions.bin");
+        index.writeSnapshot(file);
+
+        SubjectInvalidationIndex restored = new SubjectInvalidationIndex(1);
+        restored.restore(file);
+
+        assertEquals(501, restored.size());
+        assertEquals(2000, restored.minimumIssuedAt(0L));
+        for (long subject : subjects) {
+            assertTrue(restored.isInvalidated(subject, 999));
+            assertFalse(restored.isInvalidated(subject, 1000));
+        }
+        assertFalse(restored.isInvalidated(1L, 0));
+
+        assertEquals(500, restored.purgeOlderThan(1000));
+        assertEquals(1, restored.size());
+        assertEquals(2000, restored.minimumIssuedAt(0L));
+    }
+
+    @Test
+    void subjectInvalidationIndexRejectsCorruptSnapshotTest(@TempDir Path directory) throws Exception {
+
+        SubjectInvalidationIndex index = new SubjectInvalidationIndex(2);
+        index.invalidateBefore(new long[]{1L, 2L, 3L}, 1000);
+
+        Path file = directory.resolve("sessions.bin");
+        index.writeSnapshot(file);
+        byte[] snapshot = Files.readAllBytes(file);
+
+        Path truncated = directory.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(snapshot, snapshot.length - 8));
+
+        Path oversized = directory.resolve("oversized.bin");
+        byte[] header = snapshot.clone();
+        header[8] = 0x7f;
+        Files.write(oversized, header);
+
+        SubjectInvalidationIndex restored = new SubjectInvalidationIndex(1);
+
+        assertThrows(IOException.class, () -> restored.restore(truncated));
+        assertThrows(IOException.class, () -> restored.restore(oversized));
+        assertEquals(0, restored.size());
+
+        restored.restore(file);
+        assertEquals(3, restored.size());
+    }
+
+    @Test
+    void revokeTokenWithoutRevocationListFailsTest() {
+
+        assertThrows(IllegalStateException.class, () ->
+                jwtService.revokeToken(this.generateValidToken())
+        );
+    }
+
+    @Test
+    void validateTokenDoesNotCacheInvalidTokensTest() {
+
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("secretkeyaratestesunitarios-secretinvalidaemprod");
+        properties.getCache().setEnabled(true);
+
+        JwtServiceImpl cachedService = new JwtServiceImpl(properties);
+        VerifiedTokenCache cache = cachedService.getVerifiedTokenCache().orElseThrow();
+
+        cachedService.validateToken("invalid-token");
+        cachedService.validateToken("invalid-token");
+
+        assertEquals(0, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertTrue(jwtService.getVerifiedTokenCache().isEmpty());
+    }
+
+    @Test
+    void validateExpiredTokenTest() {
+
+        String token = Jwts.builder()
+                .subject("1")
+                .claim("type", TokenType.ACCESS.name())
+                .issuedAt(new Date(System.currentTimeMillis() - 120000))
+                .expiration(new Date(System.currentTimeMillis() - 60000))
+                .signWith(key)
+                .compact();
+
+        TokenValidation validation = jwtService.validateToken(token);
+
+        assertFalse(validation.valid());
+        assertEquals(TokenInvalidReason.EXPIRED, validation.reason());
+    }
+
+    @Test
+    void validateTokenWithInvalidSignatureTest() {
+
+        SecretKey otherKey = Keys.hmacShaKeyFor(
+                "outrachavedetestesunitarios-secretinvalidaemprod".getBytes(StandardCharsets.UTF_8)
+        );
+
+        String token = Jwts.builder()
+                .subject("1")
+                .claim("type", TokenType.ACCESS.name())
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(otherKey)
+                .compact();
+
+        TokenValidation validation = jwtService.validateToken(token);
+
+        assertFalse(validation.valid());
+        assertEquals(TokenInvalidReason.INVALID_SIGNATURE, validation.reason());
+    }
+
+    @Test
+    void validateMalformedTokenTest() {
+
+        TokenValidation validation = jwtService.validateToken("invalid-token");
+
+        assertFalse(validation.valid());
+        assertEquals(TokenInvalidReason.MALFORMED, validation.reason());
+    }
+
     @Test
     void extractUserInfoTest() {
 
@@ -155,6 +530,68 @@ public class JwtServiceImplTest {
         assertTrue(claims.getExpiration().after(claims.getIssuedAt()));
     }
 
+    @Test
+    void generateTokenPairsTest() {
+
+        InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore(1000);
+        jwtService.setRefreshTokenStore(store);
+
+        List<UserInfo> users = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            users.add(new UserInfo(id, "Teste", "teste@email.com", "ADMIN"));
+        }
+        Date date = new Date();
+
+        TokenBatch batch = jwtService.generateTokenPairs(users, date, true);
+
+        assertEquals(200, batch.size());
+        assertEquals(date.getTime(), batch.issuedAt());
+        assertEquals(date.getTime() + 3600000L, batch.accessExpiresAt());
+        assertEquals(200, store.size());
+        for (int i = 0; i < batch.size(); i++) {
+            TokenValidation access = jwtService.validateToken(batch.accessToken(i), TokenType.ACCESS);
+            TokenValidation refresh = jwtService.validateToken(batch.refreshToken(i), TokenType.REFRESH);
+
+            assertEquals(String.valueOf(i + 1), access.subject());
+            assertEquals(String.valueOf(i + 1), refresh.subject());
+            assertEquals(date.getTime() / 1000 * 1000, access.issuedAt());
+        }
+
+        assertEquals(0, jwtService.generateTokenPairs(List.of(), date, false).size());
+    }
+
+    @Test
+    void generateTokenPairsReportsIssuedAtMovedToCutoffTest() {
+
+        SubjectInvalidationIndex index = new SubjectInvalidationIndex(4);
+        jwtService.setSubjectIndex(index);
+
+        List<UserInfo> users = List.of(
+                new UserInfo(2L, "Outro", "outro@email.com", "USER"),
+                this.generateValidUser()
+        );
+        Date date = new Date();
+
+        jwtService.revokeAllTokens(1L);
+        long cutoff = index.minimumIssuedAt(1L) * 1000;
+
+        TokenBatch batch = jwtService.generateTokenPairs(users, date, false);
+
+        assertTrue(cutoff > date.getTime());
+        assertEquals(cutoff, batch.issuedAt());
+        assertEquals(cutoff + 3600000L, batch.accessExpiresAt());
+        assertEquals(cutoff + 7200000L, batch.refreshExpiresAt());
+        for (int i = 0; i < batch.size(); i++) {
+            TokenValidation access = jwtService.validateToken(batch.accessToken(i), TokenType.ACCESS);
+            TokenValidation refresh = jwtService.validateToken(batch.refreshToken(i), TokenType.REFRESH);
+
+            assertTrue(access.valid());
+            assertTrue(refresh.valid());
+            assertEquals(batch.issuedAt(), access.issuedAt());
+            assertEquals(batch.issuedAt(), refresh.issuedAt());
+        }
+    }
+
     @Test
     void generateTokenWithRefreshTokenTest() {
 
@@ -220,6 +657,72 @@ public class JwtServiceImplTest {
         assertEquals("auth-service", claims.getIssuer());
     }
 
+    @Test
+    void generateNewRefreshTokenKeepsFamilyTest() {
+
+        String refreshToken = jwtService.generateRefreshToken(generateValidUser(), new Date());
+        TokenValidation original = jwtService.validateToken(refreshToken);
+
+        TokenValidation rotated = jwtService.validateToken(jwtService.generateNewRefreshToken(refreshToken));
+
+        assertNotNull(original.tokenId());
+        assertEquals(original.tokenId(), original.familyId());
+        assertNotEquals(original.tokenId(), rotated.tokenId());
+        assertEquals(original.familyId(), rotated.familyId());
+    }
+
+    @Test
+    void refreshTokenReuseRevokesFamilyTest() {
+
+        InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore(4);
+        jwtService.setRefreshTokenStore(store);
+
+        String first = jwtService.generateRefreshToken(generateValidUser(), new Date());
+        String second = jwtService.rotateRefreshToken(jwtService.validateToken(first, TokenType.REFRESH), new Date());
+
+        assertEquals(1, store.size());
+
+        RefreshTokenReuseException reuse = assertThrows(RefreshTokenReuseException.class, () ->
+                jwtService.generateNewRefreshToken(first)
+        );
+        assertEquals(jwtService.validateToken(first).familyId(), reuse.getFamilyId());
+
+        assertThrows(RefreshTokenReuseException.class, () ->
+                jwtService.rotateRefreshToken(jwtService.validateToken(second, TokenType.REFRESH), new Date())
+        );
+    }
+
+    @Test
+    void generateTokenWithRefreshTokenRejectsInactiveFamilyTest() {
+
+        InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore(4);
+        jwtService.setRefreshTokenStore(store);
+
+        String first = jwtService.generateRefreshToken(generateValidUser(), new Date());
+        assertNotNull(jwtService.generateTokenWithRefreshToken(first));
+
+        String second = jwtService.rotateRefreshToken(jwtService.validateToken(first, TokenType.REFRESH), new Date());
+
+        assertThrows(JwtException.class, () -> jwtService.generateTokenWithRefreshToken(first));
+        assertNotNull(jwtService.generateTokenWithRefreshToken(second));
+
+        store.revokeFamily(jwtService.validateToken(second).familyId());
+
+        assertThrows(JwtException.class, () -> jwtService.generateTokenWithRefreshToken(second));
+    }
+
+    @Test
+    void untrackedRefreshTokenRejectedWhenRotationEnabledTest() {
+
+        String refreshToken = jwtService.generateRefreshToken(generateValidUser(), new Date());
+
+        jwtService.setRefreshTokenStore(new InMemoryRefreshTokenStore(4));
+
+        assertThrows(JwtException.class, () ->
+                jwtService.generateNewRefreshToken(refreshToken)
+        );
+    }
+
     @Test
     void generateNewRefreshToken() {
 
@@ -233,6 +736,486 @@ public class JwtServiceImplTest {
         );
     }
 
+    @Test
+    void asymmetricAlgorithmsRoundTripTest() {
+
+        for (SigningAlgorithm algorithm : new SigningAlgorithm[]{SigningAlgorithm.RS256, SigningAlgorithm.ES256, SigningAlgorithm.EdDSA}) {
+
+            KeyPair keyPair = ((SignatureAlgorithm) Jwts.SIG.get().forKey(algorithm.name()))
+                    .keyPair()
+                    .build();
+
+            JwtServiceImpl issuer = new JwtServiceImpl(this.asymmetricProperties(algorithm, keyPair, JwtMode.ISSUER));
+            JwtServiceImpl verifier = new JwtServiceImpl(this.asymmetricProperties(algorithm, keyPair, JwtMode.VERIFY_ONLY));
+
+            String token = issuer.generateToken(this.generateValidUser(), new Date());
+
+            TokenValidation validation = verifier.validateToken(token, TokenType.ACCESS);
+
+            assertTrue(validation.isAccessToken(), algorithm.name());
+            assertEquals("Teste", validation.userInfo().getName());
+            assertFalse(jwtService.validateToken(token).valid());
+        }
+    }
+
+    @Test
+    void verifyOnlyModeRejectsIssuanceTest() {
+
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+
+        JwtServiceImpl verifier = new JwtServiceImpl(
+                this.asymmetricProperties(SigningAlgorithm.ES256, keyPair, JwtMode.VERIFY_ONLY)
+        );
+
+        assertThrows(IllegalStateException.class, () ->
+                verifier.generateToken(this.generateValidUser(), new Date())
+        );
+    }
+
+    @Test
+    void verifyOnlyModeRejectsHmacIssuanceTest() {
+
+        String token = this.generateValidToken();
+
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("secretkeyaratestesunitarios-secretinvalidaemprod");
+        properties.setAccessTokenExpiration(3600000L);
+        properties.setMode(JwtMode.VERIFY_ONLY);
+
+        JwtServiceImpl verifier = new JwtServiceImpl(properties);
+
+        assertTrue(verifier.validateToken(token).valid());
+        assertThrows(IllegalStateException.class, () ->
+                verifier.generateToken(this.generateValidUser(), new Date())
+        );
+        assertThrows(IllegalStateException.class, () ->
+                verifier.generateRefreshToken(this.generateValidUser(), new Date())
+        );
+    }
+
+    @Test
+    void keyRingRotationTest(@TempDir Path keys) throws Exception {
+
+        Files.writeString(keys.resolve("2026-01.key"), "primeirachavedetestesunitarios-secretinvalidaemprod");
+
+        JwtProperties properties = new JwtProperties();
+        properties.setAccessTokenExpiration(3600000L);
+        properties.getKeys().setLocation(keys.toString());
+
+        JwtServiceImpl rotatingService = new JwtServiceImpl(properties);
+
+        String oldToken = rotatingService.generateToken(this.generateValidUser(), new Date());
+
+        String header = new String(Base64.getUrlDecoder().decode(oldToken.substring(0, oldToken.indexOf('.'))));
+        assertTrue(header.contains("\"kid\":\"2026-01\""));
+
+        Files.writeString(keys.resolve("2026-02.key"), "segundachavedetestesunitarios-secretinvalidaemprod");
+        rotatingService.rotate(KeyRingLoader.load(keys, properties));
+
+        String newToken = rotatingService.generateToken(this.generateValidUser(), new Date());
+
+        assertEquals("2026-02", rotatingService.getKeyRing().active().kid());
+        assertTrue(rotatingService.validateToken(oldToken).valid());
+        assertTrue(rotatingService.validateToken(newToken).valid());
+
+        Files.delete(keys.resolve("2026-01.key"));
+        rotatingService.rotate(KeyRingLoader.load(keys, properties));
+
+        assertEquals(TokenInvalidReason.INVALID_SIGNATURE, rotatingService.validateToken(oldToken).reason());
+        assertTrue(rotatingService.validateToken(newToken).valid());
+    }
+
+    @Test
+    void keyRingWatcherReloadsOnChangeTest(@TempDir Path keys) throws Exception {
+
+        Files.writeString(keys.resolve("a.key"), "primeirachavedetestesunitarios-secretinvalidaemprod");
+
+        JwtProperties properties = new JwtProperties();
+        properties.getKeys().setLocation(keys.toString());
+
+        JwtServiceImpl rotatingService = new JwtServiceImpl(properties);
+
+        try (KeyRingWatcher watcher = new KeyRingWatcher(keys, () -> KeyRingLoader.load(keys, properties), rotatingService::rotate)) {
+            watcher.start();
+
+            Files.writeString(keys.resolve("b.key"), "segundachavedetestesunitarios-secretinvalidaemprod");
+
+            long deadline = System.currentTimeMillis() + 10000;
+            KeyRing ring = rotatingService.getKeyRing();
+            while (!"b".equals(ring.active().kid()) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+                ring = rotatingService.getKeyRing();
+            }
+
+            assertEquals("b", ring.active().kid());
+            assertEquals(2, ring.size());
+        }
+    }
+
+    @Test
+    void compactProfileShrinksTokenTest() {
+
+        JwtServiceImpl compactService = new JwtServiceImpl(this.compactProperties());
+        UserInfo user = this.generateValidUser();
+        Date date = new Date();
+
+        String standardToken = jwtService.generateToken(user, date);
+        String compactToken = compactService.generateToken(user, date);
+
+        Claims claims = Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(compactToken)
+                .getPayload();
+
+        assertEquals("1", claims.getSubject());
+        assertEquals("ADMIN", claims.get("r", String.class));
+        assertEquals("A", claims.get("t", String.class));
+        assertNull(claims.getIssuer());
+        assertFalse(claims.containsKey("n"));
+        assertFalse(claims.containsKey("e"));
+        assertEquals(22, claims.getId().length());
+        assertTrue(compactToken.length() < standardToken.length() * 0.7);
+
+        TokenValidation validation = compactService.validateToken(compactToken, TokenType.ACCESS);
+
+        assertTrue(validation.isAccessToken());
+        assertEquals("ADMIN", validation.userInfo().getRole());
+        assertNull(validation.userInfo().getName());
+        assertEquals(TokenInvalidReason.WRONG_TYPE, compactService.validateToken(compactToken, TokenType.REFRESH).reason());
+        assertFalse(jwtService.validateToken(compactToken).valid());
+    }
+
+    @Test
+    void compactProfileHydratesOmittedFieldsTest() {
+
+        JwtServiceImpl compactService = new JwtServiceImpl(this.compactProperties());
+        AtomicInteger loads = new AtomicInteger();
+        compactService.setUserInfoHydrator(new CachingUserInfoHydrator(userId -> {
+            loads.incrementAndGet();
+            return new UserInfo(userId, "Teste", "teste@email.com", "USER");
+        }, 100, Duration.ofMinutes(5)));
+
+        String token = compactService.generateToken(this.generateValidUser(), new Date());
+
+        for (int i = 0; i < 3; i++) {
+            UserInfo userInfo = compactService.validateToken(token).userInfo();
+
+            assertEquals("Teste", userInfo.getName());
+            assertEquals("teste@email.com", userInfo.getEmail());
+            assertEquals("ADMIN", userInfo.getRole());
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void validateTokenLazilyDefersHydrationTest() {
+
+        JwtProperties properties = this.compactProperties();
+        JwtServiceImpl parserService = new JwtServiceImpl(properties);
+        properties.setFastVerification(true);
+        JwtServiceImpl fastService = new JwtServiceImpl(properties);
+
+        for (JwtServiceImpl service : List.of(parserService, fastService)) {
+            AtomicInteger loads = new AtomicInteger();
+            service.setUserInfoHydrator(userId -> {
+                loads.incrementAndGet();
+                return new UserInfo(userId, "Teste", "teste@email.com", "USER");
+            });
+
+            String token = service.generateToken(this.generateValidUser(), new Date());
+
+            TokenValidation validation = service.validateTokenLazily(token, TokenType.ACCESS);
+
+            assertTrue(validation.isAccessToken());
+            assertEquals(1L, validation.userInfo().getId());
+            assertEquals(0, loads.get());
+
+            assertEquals("Teste", validation.userInfo().getName());
+            assertEquals("ADMIN", validation.userInfo().getRole());
+            assertTrue(validation.userInfo().hasRole("ADMIN"));
+            assertEquals(1, loads.get());
+
+            assertEquals(TokenInvalidReason.WRONG_TYPE, service.validateTokenLazily(token, TokenType.REFRESH).reason());
+        }
+    }
+
+    @Test
+    void validateTokenSliceReadsHeaderInPlaceTest() {
+
+        JwtProperties properties = this.compactProperties();
+        properties.setFastVerification(true);
+        JwtServiceImpl fastService = new JwtServiceImpl(properties);
+
+        for (JwtServiceImpl service : List.of(jwtService, fastService)) {
+            String token = service.generateToken(this.generateValidUser(), new Date());
+            String header = "Bearer " + token;
+
+            TokenValidation validation = service.validateToken(TokenSlice.of(header, 7, header.length()), TokenType.ACCESS);
+
+            assertTrue(validation.isAccessToken());
+            assertEquals(service.validateToken(token, TokenType.ACCESS).userInfo().getId(), validation.userInfo().getId());
+            assertEquals(TokenInvalidReason.WRONG_TYPE,
+                    service.validateTokenLazily(TokenSlice.of(header, 7, header.length()), TokenType.REFRESH).reason());
+            assertFalse(service.validateToken(TokenSlice.of(header, 7, header.length() - 1), TokenType.ACCESS).valid());
+        }
+    }
+
+    @Test
+    void compactProfileAcceptsStandardTokensTest() {
+
+        JwtServiceImpl compactService = new JwtServiceImpl(this.compactProperties());
+
+        TokenValidation validation = compactService.validateToken(this.generateValidToken(), TokenType.ACCESS);
+
+        assertTrue(validation.isAccessToken());
+        assertEquals("Teste", validation.userInfo().getName());
+        assertEquals(TokenInvalidReason.WRONG_TYPE, compactService.validateToken(this.generateValidToken(), TokenType.REFRESH).reason());
+        assertTrue(compactService.isRefreshToken(this.generateValidRefreshToken()));
+    }
+
+    @Test
+    void standardProfileRejectsCompactTypeValuesTest() {
+
+        JwtServiceImpl compactService = new JwtServiceImpl(this.compactProperties());
+        String token = Jwts.builder().subject("1").claim("type", "A").issuer("auth-service")
+                .expiration(new Date(System.currentTimeMillis() + 60000)).signWith(key).compact();
+
+        assertTrue(compactService.validateToken(token).isAccessToken());
+        assertEquals(TokenInvalidReason.INVALID_CLAIMS, jwtService.validateToken(token).reason());
+        assertEquals(TokenInvalidReason.WRONG_TYPE, jwtService.validateToken(token, TokenType.ACCESS).reason());
+    }
+
+    @Test
+    void rolesScopesAndExtraClaimsRoundTripTest() {
+
+        JwtProperties properties = this.compactProperties();
+        properties.getClaims().setProfile(ClaimProfile.STANDARD);
+        properties.getAuthorities().setRoles(List.of("ADMIN", "USER", "AUDITOR"));
+        properties.getAuthorities().setScopes(List.of("read", "write"));
+        JwtServiceImpl service = new JwtServiceImpl(properties);
+
+        UserInfo user = new UserInfo(1L, "Teste", "teste@email.com", "ADMIN",
+                Set.of("ADMIN", "AUDITOR", "SUPPORT"),
+                Set.of("read", "write"),
+                Map.of("tenant", "acme", "level", 3));
+
+        String token = service.generateToken(user, new Date());
+
+        Claims claims = Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+
+        assertEquals(0b101L, claims.get("rb", Long.class));
+        assertEquals(List.of("SUPPORT"), claims.get("roles", List.class));
+        assertEquals(0b11L, claims.get("sb", Long.class));
+        assertFalse(claims.containsKey("scp"));
+
+        UserInfo userInfo = service.validateToken(token).userInfo();
+
+        assertEquals(Set.of("ADMIN", "AUDITOR", "SUPPORT"), userInfo.getRoles());
+        assertEquals(Set.of("read", "write"), userInfo.getScopes());
+        assertTrue(userInfo.hasScope("write"));
+        assertEquals("acme", userInfo.getClaim("tenant", String.class));
+        assertEquals(3L, userInfo.getClaim("level", Long.class));
+        assertSame(userInfo.getScopes(), service.extractUserInfo(token).getScopes());
+    }
+
+    @Test
+    void singleRoleTokenHasNoAuthorityClaimsTest() {
+
+        Claims claims = Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(jwtService.generateToken(this.generateValidUser(), new Date()))
+                .getPayload();
+
+        assertFalse(claims.containsKey("rb"));
+        assertFalse(claims.containsKey("roles"));
+        assertFalse(claims.containsKey("ext"));
+        assertEquals(Set.of("ADMIN"), jwtService.extractUserInfo(jwtService.generateToken(this.generateValidUser(), new Date())).getRoles());
+    }
+
+    @Test
+    void fastVerificationMatchesParserTest() {
+
+        JwtProperties properties = this.compactProperties();
+        properties.getClaims().setProfile(ClaimProfile.STANDARD);
+        properties.getAuthorities().setRoles(List.of("ADMIN", "USER"));
+        JwtServiceImpl parserService = new JwtServiceImpl(properties);
+        properties.setFastVerification(true);
+        JwtServiceImpl fastService = new JwtServiceImpl(properties);
+
+        SecretKey otherKey = Keys.hmacShaKeyFor(
+                "outrachavedetestesunitarios-secretinvalidaemprod".getBytes(StandardCharsets.UTF_8)
+        );
+        String validToken = this.generateValidToken();
+        String[] segments = validToken.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"2\",\"type\":\"ACCESS\",\"iss\":\"auth-service\"}".getBytes(StandardCharsets.UTF_8));
+
+        List<String> tokens = List.of(
+                validToken,
+                this.generateValidRefreshToken(),
+                fastService.generateToken(new UserInfo(1L, "Teste", "teste@email.com", "ADMIN",
+                        Set.of("ADMIN", "USER"), Set.of(), Map.of()), new Date()),
+                fastService.generateToken(new UserInfo(1L, "Teste", "teste@email.com", "ADMIN",
+                        Set.of("ADMIN", "SUPPORT"), Set.of(), Map.of("tenant", "acme")), new Date()),
+                Jwts.builder().subject("1").claim("type", "ACCESS").issuer("other-service")
+                        .expiration(new Date(System.currentTimeMillis() + 60000)).signWith(key).compact(),
+                Jwts.builder().subject("1").claim("type", "ACCESS").issuer("auth-service")
+                        .expiration(new Date(System.currentTimeMillis() - 60000)).signWith(key).compact(),
+                Jwts.builder().subject("abc").claim("type", "ACCESS").issuer("auth-service")
+                        .expiration(new Date(System.currentTimeMillis() + 60000)).signWith(key).compact(),
+                Jwts.builder().subject("1").claim("type", "ACCESS").issuer("auth-service")
+                        .expiration(new Date(System.currentTimeMillis() + 60000)).signWith(otherKey).compact(),
+                segments[0] + "." + forgedPayload + "." + segments[2],
+                Jwts.builder().subject("1").claim("type", "A").issuer("auth-service")
+                        .expiration(new Date(System.currentTimeMillis() + 60000)).signWith(key).compact(),
+                "invalid-token"
+        );
+
+        for (String token : tokens) {
+            for (TokenType expectedType : new TokenType[]{null, TokenType.ACCESS, TokenType.REFRESH}) {
+                TokenValidation expected = parserService.validateToken(token, expectedType);
+                TokenValidation actual = fastService.validateToken(token, expectedType);
+
+                assertEquals(expected.valid(), actual.valid(), token);
+                assertEquals(expected.reason(), actual.reason(), token);
+                assertEquals(expected.type(), actual.type(), token);
+                assertEquals(expected.expiresAt(), actual.expiresAt(), token);
+                if (expected.valid()) {
+                    assertEquals(expected.userInfo().getName(), actual.userInfo().getName());
+                    assertEquals(expected.userInfo().getRoles(), actual.userInfo().getRoles());
+                    assertEquals(expected.userInfo().getClaims(), actual.userInfo().getClaims());
+                }
+            }
+        }
+
+        assertNotNull(new HmacTokenVerifier(fastService.getKeyRing()).verify(validToken));
+        assertNull(new HmacTokenVerifier(fastService.getKeyRing()).verify(tokens.get(3)));
+        assertNull(new HmacTokenVerifier(fastService.getKeyRing()).verify(tokens.get(7)));
+    }
+
+    @Test
+    void fastVerificationRotationDuringHeaderCachingTest() {
+
+        JwtProperties properties = this.compactProperties();
+        JwtServiceImpl service = new JwtServiceImpl(properties);
+        String token = service.generateToken(this.generateValidUser(), new Date());
+        properties.setSecret("outrachavedetestesunitarios-secretinvalidaemprod");
+        KeyRing rotated = new JwtServiceImpl(properties).getKeyRing();
+
+        KeyRing original = spy(service.getKeyRing());
+        HmacTokenVerifier verifier = new HmacTokenVerifier(original);
+        doAnswer(invocation -> {
+            verifier.rotate(rotated);
+            return invocation.callRealMethod();
+        }).when(original).find(any());
+
+        assertNotNull(verifier.verify(token));
+        assertNull(verifier.verify(token));
+    }
+
+    @Test
+    void fastVerificationOnVirtualThreadTest() throws Exception {
+
+        JwtProperties properties = this.compactProperties();
+        properties.setFastVerification(true);
+        JwtServiceImpl fastService = new JwtServiceImpl(properties);
+        String token = fastService.generateToken(this.generateValidUser(), new Date());
+        AtomicInteger valid = new AtomicInteger();
+
+        Thread thread = Thread.ofVirtual().start(() -> {
+            for (int i = 0; i < 100; i++) {
+                if (fastService.validateToken(token, TokenType.ACCESS).isAccessToken()) {
+                    valid.incrementAndGet();
+                }
+            }
+        });
+        thread.join();
+
+        assertEquals(100, valid.get());
+        assertEquals("ADMIN", fastService.extractUserInfo(token).getRole());
+    }
+
+    @Test
+    void pooledSigningMatchesBuilderTest() throws Exception {
+
+        for (SigningAlgorithm algorithm : new SigningAlgorithm[]{SigningAlgorithm.HS512, SigningAlgorithm.RS256, SigningAlgorithm.ES384, SigningAlgorithm.EdDSA}) {
+
+            JwtProperties properties;
+            if (algorithm.isHmac()) {
+                properties = this.compactProperties();
+                properties.getClaims().setProfile(ClaimProfile.STANDARD);
+                properties.getClaims().setIncludeName(true);
+                properties.getClaims().setIncludeEmail(true);
+                properties.setSecret("chavecomtamanhosuficienteparahs512-secretinvalidaemprod-0123456789abcdef");
+                properties.setAlgorithm(algorithm);
+            } else {
+                KeyPair keyPair = ((SignatureAlgorithm) Jwts.SIG.get().forKey(algorithm.name())).keyPair().build();
+                properties = this.asymmetricProperties(algorithm, keyPair, JwtMode.ISSUER);
+            }
+            properties.getKeys().setKid("k\"1");
+            properties.setRefreshTokenExpiration(60000L);
+            properties.getAuthorities().setRoles(List.of("ADMIN"));
+
+            JwtServiceImpl pooled = new JwtServiceImpl(properties);
+            properties.setPooledSigning(false);
+            JwtServiceImpl builder = new JwtServiceImpl(properties);
+
+            UserInfo user = new UserInfo(7L, "Jos\u00e9 \"Zé\" \uD83D\uDE00\n", "jose@email.com", "ADMIN",
+                    Set.of("ADMIN", "SUPPORT"), Set.of(), Map.of());
+            Date date = new Date();
+
+            String pooledToken = pooled.generateToken(user, date);
+            Map<String, Object> expected = new HashMap<>(this.parse(builder, builder.generateToken(user, date)));
+            Map<String, Object> actual = new HashMap<>(this.parse(pooled, pooledToken));
+
+            assertEquals(36, ((String) actual.remove("jti")).length());
+            expected.remove("jti");
+            assertEquals(expected, actual, algorithm.name());
+            assertEquals(user.getName(), actual.get("name"));
+            assertEquals(Set.of("ADMIN", "SUPPORT"), builder.validateToken(pooledToken, TokenType.ACCESS).userInfo().getRoles());
+
+            AtomicInteger valid = new AtomicInteger();
+            Thread thread = Thread.ofVirtual().start(() -> {
+                for (int i = 0; i < 20; i++) {
+                    if (builder.validateToken(pooled.generateRefreshToken(user, new Date())).isRefreshToken()) {
+                        valid.incrementAndGet();
+                    }
+                }
+            });
+            thread.join();
+
+            assertEquals(20, valid.get(), algorithm.name());
+        }
+    }
+
+    private JwtProperties asymmetricProperties(SigningAlgorithm algorithm, KeyPair keyPair, JwtMode mode) {
+        JwtProperties properties = new JwtProperties();
+        properties.setAlgorithm(algorithm);
+        properties.setMode(mode);
+        properties.setAccessTokenExpiration(3600000L);
+        properties.setPublicKey("-----BEGIN PUBLIC KEY-----\n"
+                + Base64.getMimeEncoder().encodeToString(keyPair.getPublic().getEncoded())
+                + "\n-----END PUBLIC KEY-----");
+        if (mode == JwtMode.ISSUER) {
+            properties.setPrivateKey(Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+        }
+        return properties;
+    }
+
+    private Claims parse(JwtServiceImpl service, String token) {
+        return Jwts.parser()
+                .keyLocator(header -> service.getKeyRing().active().verificationKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
     private String generateValidToken() {
         return Jwts.builder()
                 .subject("1")
@@ -240,6 +1223,7 @@ public class JwtServiceImplTest {
                 .claim("email", "teste@email.com")
                 .claim("role", "ADMIN")
                 .claim("type", TokenType.ACCESS.name())
+                .issuer("auth-service")
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + 60000))
                 .signWith(key)
@@ -253,6 +1237,7 @@ public class JwtServiceImplTest {
                 .claim("email", "teste@email.com")
                 .claim("role", "ADMIN")
                 .claim("type", TokenType.REFRESH.name())
+                .issuer("auth-service")
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + 60000))
                 .signWith(key)
@@ -262,4 +1247,15 @@ public class JwtServiceImplTest {
     private UserInfo generateValidUser() {
         return new UserInfo(1L, "Teste", "teste@email.com", "ADMIN");
     }
-}
\ No newline at end of file
+
+    private JwtProperties compactProperties() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("secretkeyaratestesunitarios-secretinvalidaemprod");
+        properties.setAccessTokenExpiration(3600000L);
+        properties.setRefreshTokenExpiration(7200000L);
+        properties.getClaims().setProfile(ClaimProfile.COMPACT);
+        properties.getClaims().setIncludeName(false);
+        properties.getClaims().setIncludeEmail(false);
+        return properties;
+    }
+}